@@ -33,6 +33,7 @@ export const AuthProvider = ({ children }) => {
           // If the token is invalid or expired, clean up and treat as logged out.
           console.warn("Auth token validation failed - user will be logged out", error.response?.status);
           localStorage.removeItem('token');
+          localStorage.removeItem('refreshToken');
           setUser(null);
         }
       }
@@ -44,8 +45,12 @@ export const AuthProvider = ({ children }) => {
     checkAuthStatus();
   }, []); // <-- CRITICAL: Empty dependency array ensures this runs only once.
 
-  const login = (userData, token) => {
+  const login = (userData, token, refreshToken) => {
     localStorage.setItem('token', token);
+    // The access token lives for minutes; apiClient uses this to renew it.
+    if (refreshToken) {
+      localStorage.setItem('refreshToken', refreshToken);
+    }
     // When logging in, we already have the user data. No need to fetch again.
     setUser({
         ...userData,
@@ -60,6 +65,7 @@ export const AuthProvider = ({ children }) => {
 
   const logout = () => {
     localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
     setUser(null);
     // Navigate to login after state is cleared to ensure a clean redirect.
     navigate('/login');
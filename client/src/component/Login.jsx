@@ -29,7 +29,7 @@ const Login = () => {
     try {
       // 1. Call the login API. This part was correct.
       const response = await api.post('/auth/login', formData);
-      const { token, ...userData } = response.data;
+      const { token, refreshToken, expiresIn, ...userData } = response.data;
 
       if (!token || !userData) {
         throw new Error('Invalid response from server during login.');
@@ -39,7 +39,7 @@ const Login = () => {
       //    We call the one true 'login' function from our AuthContext.
       //    It handles setting the user state AND saving the token to localStorage.
       //    The AuthContext login function will handle navigation, so we don't need to navigate here.
-      login(userData, token);
+      login(userData, token, refreshToken);
 
     } catch (err) {
       const errorMessage = err.response?.data?.message || err.response?.data || 'Authentication failed. Please check your credentials.';
@@ -1,4 +1,5 @@
 import React, { useEffect, useState } from 'react';
+import { Link } from 'react-router-dom';
 import api from '../service/apiClient';
 
 const Posts = () => {
@@ -8,10 +9,11 @@ const Posts = () => {
     const fetchPosts = async () => {
         try {
             const response = await api.get('/posts');
-            setPosts(response.data);
+            // A page of excerpts; the detail page fetches the full content.
+            setPosts(response.data.content);
 
             const commentsData = {};
-            for (const post of response.data) {
+            for (const post of response.data.content) {
                 const response = await api.get(`/comments/post/${post.id}`);
                 commentsData[post.id] = response.data;
             }
@@ -41,7 +43,10 @@ const Posts = () => {
                           )}
                       </div>
                   )}
-                  <p>{post.content}</p>
+                  <p>
+                      {post.excerpt}
+                      {post.truncated && <> … <Link to={`/posts/${post.id}`}>Read more</Link></>}
+                  </p>
                   <strong>Comments:</strong>
                   <ul>
                       {comments[post.id]?.length > 0 ? (
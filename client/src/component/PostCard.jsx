@@ -36,7 +36,7 @@ const PostCard = ({ post }) => {
         </div>
       )}
       
-      <p className="text-base-content/70 line-clamp-2 mb-4">{post.content}</p>
+      <p className="text-base-content/70 line-clamp-2 mb-4">{post.excerpt}{post.truncated ? '…' : ''}</p>
       <div className="flex justify-between items-center text-sm text-base-content/50 border-t border-base-300 pt-4">
         <div className="flex items-center gap-2">
           <User size={14}/>
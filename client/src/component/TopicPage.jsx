@@ -12,8 +12,6 @@ import { ModernCard, ModernButton, ModernIconButton, ModernInput, ModernTextarea
 // Post Card for this page - simplified and more focused
 const TopicPostCard = React.memo(({ post, onInteraction }) => {
     const navigate = useNavigate();
-    const contentPreviewLength = 200; // Shorter preview for a denser feed
-    const hasLongContent = post.content.length > contentPreviewLength;
 
     const handleCardClick = (e) => {
       // Navigate to post detail only if the click wasn't on an interactive element
@@ -60,7 +58,7 @@ const TopicPostCard = React.memo(({ post, onInteraction }) => {
                   {post.title || 'Untitled Post'}
                 </h3>
                 <p className="text-zinc-400 text-sm mb-3 line-clamp-3">
-                    {post.content.slice(0, contentPreviewLength)}{hasLongContent ? '...' : ''}
+                    {post.excerpt}{post.truncated ? '...' : ''}
                 </p>
 
                 {/* Author and Date */}
@@ -157,7 +155,7 @@ export const TopicPage = () => {
         try {
             const response = await api.get(`/topics/${topicId}/details`, {
                 params: {
-                    sort: sortBy === 'newest' ? 'createdAt,desc' : 'likesCount,desc'
+                    sort: sortBy
                 }
             });
             setTopic(response.data.topic);
@@ -37,6 +37,27 @@ api.interceptors.request.use(
 );
 
 
+// Concurrent 401s share one refresh: refresh tokens rotate, so a second
+// refresh with the same token would fail and end the session.
+let refreshInFlight = null;
+
+const refreshAccessToken = () => {
+  if (!refreshInFlight) {
+    const refreshToken = localStorage.getItem('refreshToken');
+    refreshInFlight = axios
+      .post(`${api.defaults.baseURL}/auth/refresh`, { refreshToken })
+      .then((response) => {
+        localStorage.setItem('token', response.data.token);
+        localStorage.setItem('refreshToken', response.data.refreshToken);
+        return response.data.token;
+      })
+      .finally(() => {
+        refreshInFlight = null;
+      });
+  }
+  return refreshInFlight;
+};
+
 api.interceptors.response.use(
   (response) => {
     console.log('Response received:', {
@@ -46,7 +67,19 @@ api.interceptors.response.use(
     });
     return response;
   },
-  (error) => {
+  async (error) => {
+    const original = error.config;
+    if (error.response?.status === 401 && original && !original._retried
+        && !original.url?.startsWith('/auth/') && localStorage.getItem('refreshToken')) {
+      original._retried = true;
+      try {
+        const token = await refreshAccessToken();
+        original.headers.Authorization = `Bearer ${token}`;
+        return api(original);
+      } catch (refreshError) {
+        localStorage.removeItem('refreshToken');
+      }
+    }
 
     const errorInfo = {
       url: `${error.config?.baseURL}${error.config?.url}`,
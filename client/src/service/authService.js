@@ -21,7 +21,8 @@ export const signup = async (userData) => {
 
 export const logout = async () => {
   try {
-    await api.post('/auth/logout');
+    // Ends this device's session, even if the access token has already expired.
+    await api.post('/auth/logout', { refreshToken: localStorage.getItem('refreshToken') });
   } catch (error) {
     console.error('Logout failed', error);
   }
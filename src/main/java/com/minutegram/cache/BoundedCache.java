@@ -0,0 +1,151 @@
+package com.minutegram.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small in-process LRU cache with a size bound and a time-to-live.
+ *
+ * Loads that race with an invalidation must not re-insert stale data, so callers take a
+ * stamp with loadStamp() before reading the database and pass it to put(); the put is
+ * dropped if that key (or the whole cache) was invalidated in between. Invalidations of
+ * other keys do not affect it, so a steady stream of writes does not stop the cache from
+ * filling. The per-key invalidation stamps are kept for at most maxSize keys; when one is
+ * forgotten, puts of loads that started before it are dropped for every key, which errs
+ * on the side of a miss.
+ */
+public class BoundedCache<K, V> {
+
+    private static final class CachedValue<V> {
+        final V value;
+        final long expiresAtNanos;
+
+        CachedValue(V value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, CachedValue<V>> entries;
+    // key -> clock value of its latest invalidation, oldest first
+    private final LinkedHashMap<K, Long> invalidatedAt;
+    // puts with a stamp below this are dropped: invalidateAll(), or a forgotten per-key stamp
+    private long invalidatedBefore;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public BoundedCache(String name, int maxSize, Duration ttl) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        // accessOrder = true turns the LinkedHashMap into an LRU list.
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CachedValue<V>> eldest) {
+                if (size() > BoundedCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.invalidatedAt = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Long> eldest) {
+                if (size() > BoundedCache.this.maxSize) {
+                    invalidatedBefore = Math.max(invalidatedBefore, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The cached value, or null if absent or expired.
+     */
+    public V get(K key) {
+        synchronized (entries) {
+            CachedValue<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAtNanos - System.nanoTime() > 0) {
+                hits.incrementAndGet();
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Take this before loading a value from the database.
+     */
+    public long loadStamp() {
+        return clock.get();
+    }
+
+    /**
+     * Stores a value loaded after loadStamp() was taken, unless the key was invalidated meanwhile.
+     */
+    public void put(K key, V value, long loadStamp) {
+        synchronized (entries) {
+            if (!isCurrent(key, loadStamp)) {
+                return;
+            }
+            entries.put(key, new CachedValue<>(value, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    /**
+     * Whether a value loaded after loadStamp() was taken is still current: neither the key nor
+     * the whole cache has been invalidated since.
+     */
+    public boolean isCurrent(K key, long loadStamp) {
+        synchronized (entries) {
+            Long keyInvalidatedAt = invalidatedAt.get(key);
+            return loadStamp >= invalidatedBefore && (keyInvalidatedAt == null || loadStamp >= keyInvalidatedAt);
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            // remove() first so a re-invalidated key moves to the young end of invalidatedAt.
+            invalidatedAt.remove(key);
+            invalidatedAt.put(key, clock.incrementAndGet());
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidatedBefore = clock.incrementAndGet();
+            invalidatedAt.clear();
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(name, size(), maxSize, hits.get(), misses.get(), evictions.get());
+    }
+}
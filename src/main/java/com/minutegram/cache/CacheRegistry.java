@@ -0,0 +1,46 @@
+package com.minutegram.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps track of every in-process cache and single-flight group so their stats can be reported in one place.
+ */
+@Component
+public class CacheRegistry {
+
+    private final List<BoundedCache<?, ?>> caches = new CopyOnWriteArrayList<>();
+    private final List<SingleFlight<?, ?>> singleFlights = new CopyOnWriteArrayList<>();
+    // Caches that are not a BoundedCache but report the same stats.
+    private final List<Supplier<CacheStats>> otherCaches = new CopyOnWriteArrayList<>();
+
+    public <K, V> BoundedCache<K, V> register(BoundedCache<K, V> cache) {
+        caches.add(cache);
+        return cache;
+    }
+
+    public void registerStats(Supplier<CacheStats> stats) {
+        otherCaches.add(stats);
+    }
+
+    public <K, V> SingleFlight<K, V> register(SingleFlight<K, V> singleFlight) {
+        singleFlights.add(singleFlight);
+        return singleFlight;
+    }
+
+    public List<SingleFlightStats> singleFlightStats() {
+        return singleFlights.stream()
+                .map(SingleFlight::stats)
+                .collect(Collectors.toList());
+    }
+
+    public List<CacheStats> stats() {
+        return Stream.concat(caches.stream().map(BoundedCache::stats), otherCaches.stream().map(Supplier::get))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,61 @@
+package com.minutegram.cache;
+
+import java.util.List;
+
+/**
+ * Point-in-time counters of the comment tree cache, with the estimated size of every cached tree
+ * (largest first), exposed through the admin metrics endpoint.
+ */
+public class CommentTreeCacheStats {
+    private final int trees;
+    private final int maxTrees;
+    private final long estimatedBytes;
+    private final long maxBytes;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long inserts;
+    private final long prunes;
+    private final List<TreeSize> treeSizes;
+
+    public CommentTreeCacheStats(int trees, int maxTrees, long estimatedBytes, long maxBytes, long hits, long misses,
+                                 long evictions, long inserts, long prunes, List<TreeSize> treeSizes) {
+        this.trees = trees;
+        this.maxTrees = maxTrees;
+        this.estimatedBytes = estimatedBytes;
+        this.maxBytes = maxBytes;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.inserts = inserts;
+        this.prunes = prunes;
+        this.treeSizes = treeSizes;
+    }
+
+    public int getTrees() { return trees; }
+    public int getMaxTrees() { return maxTrees; }
+    public long getEstimatedBytes() { return estimatedBytes; }
+    public long getMaxBytes() { return maxBytes; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+    public long getInserts() { return inserts; }
+    public long getPrunes() { return prunes; }
+    public List<TreeSize> getTreeSizes() { return treeSizes; }
+
+    public static class TreeSize {
+        private final Long postId;
+        private final int comments;
+        private final long estimatedBytes;
+
+        public TreeSize(Long postId, int comments, long estimatedBytes) {
+            this.postId = postId;
+            this.comments = comments;
+            this.estimatedBytes = estimatedBytes;
+        }
+
+        public Long getPostId() { return postId; }
+        public int getComments() { return comments; }
+        public long getEstimatedBytes() { return estimatedBytes; }
+    }
+}
@@ -0,0 +1,26 @@
+package com.minutegram.cache;
+
+/**
+ * Point-in-time counters of a SingleFlight, exposed through the admin metrics endpoint.
+ */
+public class SingleFlightStats {
+    private final String name;
+    private final int inFlight;
+    private final long calls;
+    private final long loads;
+    private final long collapsed;
+
+    public SingleFlightStats(String name, int inFlight, long calls, long loads, long collapsed) {
+        this.name = name;
+        this.inFlight = inFlight;
+        this.calls = calls;
+        this.loads = loads;
+        this.collapsed = collapsed;
+    }
+
+    public String getName() { return name; }
+    public int getInFlight() { return inFlight; }
+    public long getCalls() { return calls; }
+    public long getLoads() { return loads; }
+    public long getCollapsed() { return collapsed; }
+}
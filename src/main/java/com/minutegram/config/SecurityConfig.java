@@ -55,6 +55,9 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> {
                     auth.requestMatchers("/api/auth/**").permitAll();
+                    // Personal views; must precede the public GET rules below.
+                    auth.requestMatchers(HttpMethod.GET, "/api/posts/home").authenticated();
+                    auth.requestMatchers(HttpMethod.GET, "/api/topics/subscriptions").authenticated();
                     auth.requestMatchers(HttpMethod.GET, "/api/posts/**").permitAll();
                     auth.requestMatchers(HttpMethod.GET, "/api/comments/**").permitAll();
                     auth.requestMatchers(HttpMethod.GET, "/api/topics/**").permitAll();
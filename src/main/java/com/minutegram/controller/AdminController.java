@@ -1,9 +1,14 @@
 package com.minutegram.controller;
 
+import com.minutegram.cache.CacheRegistry;
+import com.minutegram.cache.CacheStats;
+import com.minutegram.cache.CommentTreeCacheStats;
+import com.minutegram.cache.SingleFlightStats;
 import com.minutegram.dto.CommentResponseDto;
-import com.minutegram.dto.PostResponseDto;
+import com.minutegram.dto.CountMode;
+import com.minutegram.dto.CursorPage;
+import com.minutegram.dto.PostSummaryDto;
 import com.minutegram.dto.TopicDto;
-import com.minutegram.entity.Comment;
 import com.minutegram.entity.Role;
 import com.minutegram.entity.User;
 import com.minutegram.repository.CommentRepository;
@@ -11,10 +16,16 @@ import com.minutegram.repository.PostRepository;
 import com.minutegram.repository.TopicRepository;
 import com.minutegram.repository.UserRepository;
 import com.minutegram.service.AdminService;
+import com.minutegram.service.CommentService;
+import com.minutegram.service.CommentTreeCache;
+import com.minutegram.service.PostCounterReconciler;
+import com.minutegram.service.PostService;
+import com.minutegram.service.RowCountEstimator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -41,30 +52,68 @@ public class AdminController {
     private TopicRepository topicRepository;
     @Autowired
     private AdminService adminService;
+    @Autowired
+    private CommentService commentService;
+    @Autowired
+    private PostCounterReconciler postCounterReconciler;
+    @Autowired
+    private CacheRegistry cacheRegistry;
+    @Autowired
+    private CommentTreeCache commentTreeCache;
+    @Autowired
+    private RowCountEstimator rowCountEstimator;
 
     @GetMapping("/posts")
     @PreAuthorize("hasAnyRole('MODERATOR', 'ADMIN')")
-    public ResponseEntity<Page<PostResponseDto>> getAllPosts(
+    public ResponseEntity<Page<PostSummaryDto>> getAllPosts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "") String search) {
-        Pageable pageable = PageRequest.of(page, size);
+            @RequestParam(defaultValue = "") String search,
+            @RequestParam(defaultValue = "exact") String countMode) {
+        Pageable pageable = PageRequest.of(page, size, PostService.NEWEST_FIRST);
         // Use the new, efficient projection query. No more .map()
-        Page<PostResponseDto> dtoPage = postRepository.findAllProjectedBy(pageable);
-        return ResponseEntity.ok(dtoPage);
+        return ResponseEntity.ok(rowCountEstimator.page(CountMode.parse(countMode), pageable, "post", false,
+                () -> postRepository.findAllProjectedBy(pageable),
+                () -> postRepository.findSliceProjectedBy(pageable)));
+    }
+
+    @GetMapping("/posts/slice")
+    @PreAuthorize("hasAnyRole('MODERATOR', 'ADMIN')")
+    public ResponseEntity<Slice<PostSummaryDto>> getAllPostsSlice(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        Pageable pageable = PageRequest.of(page, size, PostService.NEWEST_FIRST);
+        return ResponseEntity.ok(postRepository.findSliceProjectedBy(pageable));
     }
 
     @GetMapping("/comments")
     @PreAuthorize("hasAnyRole('MODERATOR', 'ADMIN')")
     public ResponseEntity<Page<CommentResponseDto>> getAllComments(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "") String search,
+            @RequestParam(defaultValue = "exact") String countMode) {
+        Pageable pageable = PageRequest.of(page, size);
+        return ResponseEntity.ok(commentService.getAllComments(search, pageable, CountMode.parse(countMode)));
+    }
+
+    @GetMapping("/comments/slice")
+    @PreAuthorize("hasAnyRole('MODERATOR', 'ADMIN')")
+    public ResponseEntity<Slice<CommentResponseDto>> getAllCommentsSlice(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "") String search) {
         Pageable pageable = PageRequest.of(page, size);
-        // NOTE: This will be your next bottleneck. You should create a projection for comments too.
-        // For now, we leave it, as it wasn't the original complaint.
-        Page<Comment> commentsPage = commentRepository.findByContentContainingIgnoreCase(search, pageable);
-        return ResponseEntity.ok(commentsPage.map(CommentResponseDto::fromEntity));
+        return ResponseEntity.ok(commentService.getAllCommentsSlice(search, pageable));
+    }
+
+    @GetMapping("/comments/search")
+    @PreAuthorize("hasAnyRole('MODERATOR', 'ADMIN')")
+    public ResponseEntity<CursorPage<CommentResponseDto>> searchComments(
+            @RequestParam(defaultValue = "") String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(commentService.searchComments(search, cursor, size));
     }
 
     @GetMapping("/users")
@@ -72,33 +121,64 @@ public class AdminController {
     public ResponseEntity<Page<User>> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "") String search) {
+            @RequestParam(defaultValue = "") String search,
+            @RequestParam(defaultValue = "exact") String countMode) {
         Pageable pageable = PageRequest.of(page, size);
         // DANGER: Returning the full User entity is a security risk. You should create a UserAdminDto
         // and a projection query for this as well to avoid exposing password hashes etc.
-        Page<User> usersPage = userRepository.findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(search, search, pageable);
+        Page<User> usersPage = rowCountEstimator.page(CountMode.parse(countMode), pageable, "users", !search.isEmpty(),
+                () -> userRepository.findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(search, search, pageable),
+                () -> userRepository.findSliceByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(search, search, pageable));
         return ResponseEntity.ok(usersPage);
     }
 
+    @GetMapping("/users/slice")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Slice<User>> getAllUsersSlice(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "") String search) {
+        Pageable pageable = PageRequest.of(page, size);
+        return ResponseEntity.ok(userRepository.findSliceByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(search, search, pageable));
+    }
+
     @GetMapping("/topics")
     @PreAuthorize("hasAnyRole('MODERATOR', 'ADMIN')")
     public ResponseEntity<Page<TopicDto>> getAllTopics(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "") String search) {
+            @RequestParam(defaultValue = "") String search,
+            @RequestParam(defaultValue = "exact") String countMode) {
         Pageable pageable = PageRequest.of(page, size);
         Page<TopicDto> dtoPage;
         if (search.isEmpty()) {
             // Use the projection query for all topics
-            dtoPage = topicRepository.findAllProjected(pageable);
+            dtoPage = rowCountEstimator.page(CountMode.parse(countMode), pageable, "topic", false,
+                    () -> topicRepository.findAllProjected(pageable),
+                    () -> topicRepository.findSliceProjected(pageable));
         } else {
             // Use the new projection query for searching
-            dtoPage = topicRepository.findProjectedByNameContainingIgnoreCase(search, pageable);
+            dtoPage = rowCountEstimator.page(CountMode.parse(countMode), pageable, "topic", true,
+                    () -> topicRepository.findProjectedByNameContainingIgnoreCase(search, pageable),
+                    () -> topicRepository.findSliceProjectedByNameContainingIgnoreCase(search, pageable));
         }
         // The evil .map() call is gone forever.
         return ResponseEntity.ok(dtoPage);
     }
 
+    @GetMapping("/topics/slice")
+    @PreAuthorize("hasAnyRole('MODERATOR', 'ADMIN')")
+    public ResponseEntity<Slice<TopicDto>> getAllTopicsSlice(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "") String search) {
+        Pageable pageable = PageRequest.of(page, size);
+        Slice<TopicDto> dtoSlice = search.isEmpty()
+                ? topicRepository.findSliceProjected(pageable)
+                : topicRepository.findSliceProjectedByNameContainingIgnoreCase(search, pageable);
+        return ResponseEntity.ok(dtoSlice);
+    }
+
     // --- All other endpoints below are single-action or stat lookups ---
     // They are not causing your page-load performance issues. They remain unchanged.
     
@@ -156,6 +236,30 @@ public class AdminController {
         return ResponseEntity.ok(data);
     }
 
+    @GetMapping("/metrics/caches")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<CacheStats>> getCacheStats() {
+        return ResponseEntity.ok(cacheRegistry.stats());
+    }
+
+    @GetMapping("/metrics/comment-trees")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CommentTreeCacheStats> getCommentTreeCacheStats() {
+        return ResponseEntity.ok(commentTreeCache.stats());
+    }
+
+    @GetMapping("/metrics/single-flight")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<SingleFlightStats>> getSingleFlightStats() {
+        return ResponseEntity.ok(cacheRegistry.singleFlightStats());
+    }
+
+    @PostMapping("/maintenance/reconcile-counters")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> reconcileCounters() {
+        return ResponseEntity.ok(postCounterReconciler.reconcile());
+    }
+
     @GetMapping("/users/roles-distribution")
     @PreAuthorize("hasAnyRole('MODERATOR', 'ADMIN')")
     public ResponseEntity<Map<Role, Long>> getUserRolesDistribution() {
@@ -202,7 +306,7 @@ public class AdminController {
     @DeleteMapping("/topics/{topicId}")
     @PreAuthorize("hasAnyRole('MODERATOR', 'ADMIN')")
     public ResponseEntity<?> deleteTopic(@PathVariable Long topicId) {
-        topicRepository.deleteById(topicId);
+        adminService.deleteTopic(topicId);
         return ResponseEntity.ok().build();
     }
 }
\ No newline at end of file
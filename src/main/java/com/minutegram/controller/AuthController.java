@@ -1,13 +1,19 @@
 package com.minutegram.controller;
 
-import com.minutegram.dto.JwtService;
+import com.minutegram.dto.AuthTokens;
 import com.minutegram.dto.LoginRequest;
+import com.minutegram.dto.RefreshTokenRequest;
+import com.minutegram.dto.SessionDto;
 import com.minutegram.entity.Role;
 import com.minutegram.entity.User;
 import com.minutegram.repository.UserRepository;
+import com.minutegram.service.RefreshTokenService;
 import com.minutegram.service.TokenManagementService;
+import com.minutegram.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -18,6 +24,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -36,7 +43,10 @@ public class AuthController {
     private TokenManagementService tokenManagementService;
 
     @Autowired
-    private JwtService jwtService;
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserService userService;
 
     // CRITICAL: Inject the AuthenticationManager. This is the standard Spring Security way.
     @Autowired
@@ -63,7 +73,8 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest,
+                                   @RequestHeader(value = "User-Agent", required = false) String userAgent) {
         // Delegate authentication to Spring Security's AuthenticationManager
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())
@@ -74,31 +85,60 @@ public class AuthController {
         String username = userDetails.getUsername();
         Collection<? extends GrantedAuthority> authorities = userDetails.getAuthorities();
 
-        // Generate a token that INCLUDES the user's roles.
-        String token = jwtService.generateToken(username, authorities);
-
-        // Correctly save the token to enable our logout blacklist logic.
-        tokenManagementService.saveUserToken(username, token);
-        
         // Fetch the user for the response payload. This is OKAY to do here, as it only happens once on login.
         User user = userRepository.findByEmail(username)
                 .orElseThrow(() -> new RuntimeException("User not found after successful authentication. This should not happen."));
 
+        // Open a session for this device: a short-lived access token (with the user's id, name
+        // and roles) and a refresh token. Other devices stay signed in.
+        AuthTokens tokens = refreshTokenService.startSession(user, userAgent);
 
         return ResponseEntity.ok(Map.of(
-                "token", token,
+                "token", tokens.getAccessToken(),
+                "refreshToken", tokens.getRefreshToken(),
+                "expiresIn", tokens.getExpiresIn(),
                 "email", user.getEmail(),
                 "name", user.getName(), // Send back useful info
                 "roles", authorities.stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList())
         ));
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshTokenRequest request) {
+        return refreshTokenService.refresh(request.getRefreshToken())
+                .<ResponseEntity<?>>map(tokens -> ResponseEntity.ok(Map.of(
+                        "token", tokens.getAccessToken(),
+                        "refreshToken", tokens.getRefreshToken(),
+                        "expiresIn", tokens.getExpiresIn())))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid refresh token"));
+    }
+
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader,
+                                    @RequestBody(required = false) RefreshTokenRequest request) {
+        String refreshToken = request == null ? null : request.getRefreshToken();
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
             tokenManagementService.invalidateToken(token);
+            refreshTokenService.endSession(token, refreshToken);
+        } else if (refreshToken != null) {
+            refreshTokenService.endSession(null, refreshToken);
         }
         return ResponseEntity.ok("Logged out successfully");
     }
+
+    @GetMapping("/sessions")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<SessionDto>> getSessions() {
+        return ResponseEntity.ok(refreshTokenService.getSessions(userService.getCurrentUserId()));
+    }
+
+    @DeleteMapping("/sessions/{sessionId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> revokeSession(@PathVariable Long sessionId) {
+        if (!refreshTokenService.revokeSession(userService.getCurrentUserId(), sessionId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
 }
\ No newline at end of file
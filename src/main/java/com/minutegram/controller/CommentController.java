@@ -2,7 +2,9 @@ package com.minutegram.controller;
 
 
 import com.minutegram.dto.CommentCreateDto;
+import com.minutegram.dto.CommentNodeDto;
 import com.minutegram.dto.CommentResponseDto;
+import com.minutegram.dto.CursorPage;
 import com.minutegram.service.CommentService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +13,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/comments")
@@ -31,6 +34,39 @@ public class CommentController {
         return ResponseEntity.ok(comments);
     }
 
+    @GetMapping("/post/{postId}/thread")
+    public ResponseEntity<CursorPage<CommentNodeDto>> getPostThread(
+            @PathVariable Long postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "3") int replies) {
+        return ResponseEntity.ok(commentService.getThread(postId, cursor, size, replies));
+    }
+
+    @GetMapping("/{commentId}/replies/page")
+    public ResponseEntity<CursorPage<CommentNodeDto>> getCommentRepliesPage(
+            @PathVariable Long commentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(commentService.getRepliesPage(commentId, cursor, size));
+    }
+
+    @GetMapping("/{commentId}/subtree")
+    public ResponseEntity<CursorPage<CommentNodeDto>> getCommentSubtree(
+            @PathVariable Long commentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "3") int depth,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(commentService.getSubtree(commentId, cursor, depth, size));
+    }
+
+    @GetMapping("/replies")
+    public ResponseEntity<Map<Long, CursorPage<CommentNodeDto>>> getRepliesBatch(
+            @RequestParam List<Long> parentIds,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(commentService.getRepliesBatch(parentIds, limit));
+    }
+
     @GetMapping("/{commentId}/replies")
     public ResponseEntity<List<CommentResponseDto>> getCommentReplies(@PathVariable Long commentId) {
         List<CommentResponseDto> replies = commentService.getCommentReplies(commentId);
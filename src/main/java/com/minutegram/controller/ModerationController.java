@@ -1,7 +1,8 @@
 package com.minutegram.controller;
 
 import com.minutegram.dto.CommentResponseDto;
-import com.minutegram.dto.PostResponseDto;
+import com.minutegram.dto.CursorPage;
+import com.minutegram.dto.PostSummaryDto;
 import com.minutegram.repository.CommentRepository;
 import com.minutegram.repository.PostRepository;
 import com.minutegram.repository.TopicRepository;
@@ -87,8 +88,12 @@ public class ModerationController {
     @DeleteMapping("/topics/{topicId}")
     @PreAuthorize("hasAnyRole('MODERATOR', 'ADMIN')")
     public ResponseEntity<?> deleteTopic(@PathVariable Long topicId) {
-        topicRepository.deleteById(topicId);
-        return ResponseEntity.ok().build();
+        try {
+            moderatorService.deleteTopic(topicId);
+            return ResponseEntity.ok().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @PostMapping("/users/{userId}/unban")
@@ -110,15 +115,21 @@ public class ModerationController {
 
     @GetMapping("/comments")
     @PreAuthorize("hasAnyRole('MODERATOR', 'ADMIN')")
-    public ResponseEntity<Page<CommentResponseDto>> getAllComments(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
+    public ResponseEntity<Page<CommentResponseDto>> getAllComments(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size, @RequestParam(defaultValue = "") String search) {
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(commentService.getAllComments(pageable));
+        return ResponseEntity.ok(commentService.getAllComments(search, pageable));
+    }
+
+    @GetMapping("/comments/search")
+    @PreAuthorize("hasAnyRole('MODERATOR', 'ADMIN')")
+    public ResponseEntity<CursorPage<CommentResponseDto>> searchComments(@RequestParam(defaultValue = "") String search, @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(commentService.searchComments(search, cursor, size));
     }
 
     @GetMapping("/posts")
     @PreAuthorize("hasAnyRole('MODERATOR', 'ADMIN')")
-    public ResponseEntity<Page<PostResponseDto>> getAllPosts(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
-        Pageable pageable = PageRequest.of(page, size);
+    public ResponseEntity<Page<PostSummaryDto>> getAllPosts(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
+        Pageable pageable = PageRequest.of(page, size, PostService.NEWEST_FIRST);
         return ResponseEntity.ok(postService.getAllPosts(pageable));
     }
 }
\ No newline at end of file
@@ -1,10 +1,11 @@
 package com.minutegram.controller;
 
+import com.minutegram.dto.CursorPage;
 import com.minutegram.dto.PostCreateDto;
 import com.minutegram.dto.PostResponseDto;
+import com.minutegram.dto.PostSummaryDto;
 import com.minutegram.dto.PostWithCommentsDto;
 import com.minutegram.entity.Post;
-import com.minutegram.entity.User;
 import com.minutegram.repository.PostRepository;
 import com.minutegram.repository.UserRepository;
 import com.minutegram.service.PostService;
@@ -14,6 +15,7 @@ import jakarta.validation.Valid;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -70,9 +72,9 @@ public class PostController {
     @PostMapping("/{postId}/like")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> likePost(@PathVariable Long postId, @AuthenticationPrincipal SecurityUser userDetails) {
-        User currentUser = userService.getCurrentUser();
+        Long userId = userService.getCurrentUserId();
         try {
-            postService.likePost(postId, currentUser.getId());
+            postService.likePost(postId, userId);
             return ResponseEntity.ok().build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -82,9 +84,9 @@ public class PostController {
     @DeleteMapping("/{postId}/like")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> unlikePost(@PathVariable Long postId, @AuthenticationPrincipal SecurityUser userDetails) {
-        User currentUser = userService.getCurrentUser();
+        Long userId = userService.getCurrentUserId();
         try {
-            postService.unlikePost(postId, currentUser.getId());
+            postService.unlikePost(postId, userId);
             return ResponseEntity.ok().build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -92,14 +94,45 @@ public class PostController {
     }
 
     @GetMapping
-    public ResponseEntity<Page<PostResponseDto>> getAllPosts(
+    public ResponseEntity<Page<PostSummaryDto>> getAllPosts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        Pageable pageable = org.springframework.data.domain.PageRequest.of(page, size);
-        Page<PostResponseDto> postsPage = postService.getAllPosts(pageable);
+        Pageable pageable = org.springframework.data.domain.PageRequest.of(page, size, PostService.NEWEST_FIRST);
+        Page<PostSummaryDto> postsPage = postService.getAllPosts(pageable);
         return ResponseEntity.ok(postsPage);
     }
 
+    @GetMapping("/slice")
+    public ResponseEntity<Slice<PostSummaryDto>> getAllPostsSlice(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        Pageable pageable = org.springframework.data.domain.PageRequest.of(page, size, PostService.NEWEST_FIRST);
+        return ResponseEntity.ok(postService.getAllPostsSlice(pageable));
+    }
+
+    @GetMapping("/feed")
+    public ResponseEntity<CursorPage<PostSummaryDto>> getFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(postService.getFeed(cursor, size));
+    }
+
+    @GetMapping("/home")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<CursorPage<PostSummaryDto>> getHome(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(postService.getHome(cursor, size));
+    }
+
+    @GetMapping("/hot")
+    public ResponseEntity<CursorPage<PostSummaryDto>> getHot(
+            @RequestParam(required = false) Long topicId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(postService.getHot(topicId, cursor, size));
+    }
+
     
     @GetMapping("/{postId}")
     public ResponseEntity<PostWithCommentsDto> getPostById(@PathVariable Long postId) {
@@ -1,21 +1,27 @@
 package com.minutegram.controller;
 
-import com.minutegram.dto.PostResponseDto;
+import com.minutegram.dto.PostSummaryDto;
 import com.minutegram.dto.TopicCreateDto;
 import com.minutegram.dto.TopicDto;
+import com.minutegram.dto.TopicNameDto;
+import com.minutegram.dto.TopicSuggestionDto;
 import com.minutegram.dto.TopicWithPostsDto;
-import com.minutegram.entity.Topic;
+import com.minutegram.service.PostService;
+import com.minutegram.service.TimelineService;
 import com.minutegram.service.TopicService;
+import com.minutegram.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/topics")
 public class TopicController {
@@ -23,56 +29,111 @@ public class TopicController {
     @Autowired
     private TopicService topicService;
 
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private UserService userService;
+
     @PostMapping
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<TopicDto> createTopic(@Valid @RequestBody TopicCreateDto topicDto) {
-        Topic topic = topicService.createTopic(topicDto);
-        TopicDto responseDto = new TopicDto(
-            topic.getId(),
-            topic.getName(),
-            topic.getDescription(),
-            topic.getCreatedAt(),
-            topic.getCreator().getId(),
-            topic.getCreator().getName(),
-            0
-        );
-        return ResponseEntity.ok(responseDto);
+        return ResponseEntity.ok(topicService.createTopic(topicDto));
     }
 
     @GetMapping
     public ResponseEntity<Page<TopicDto>> getAllTopics(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        Pageable pageable = PageRequest.of(page, size);
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "") String sort) {
+        Pageable pageable = PageRequest.of(page, size, TopicService.topicSort(sort));
         Page<TopicDto> topicsPage = topicService.getAllTopics(pageable);
         return ResponseEntity.ok(topicsPage);
     }
 
+    @GetMapping("/names")
+    public ResponseEntity<List<TopicNameDto>> getTopicNames() {
+        return ResponseEntity.ok(topicService.getTopicNames());
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<TopicSuggestionDto>> suggestTopics(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(topicService.suggestTopics(q, limit));
+    }
+
+    @GetMapping("/slice")
+    public ResponseEntity<Slice<TopicDto>> getAllTopicsSlice(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "") String sort) {
+        Pageable pageable = PageRequest.of(page, size, TopicService.topicSort(sort));
+        return ResponseEntity.ok(topicService.getAllTopicsSlice(pageable));
+    }
+
     
     @GetMapping("/{id}/details")
     public ResponseEntity<TopicWithPostsDto> getTopicWithPosts(
             @PathVariable Long id,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "createdAt,desc") String sort) {
-        String[] sortParams = sort.split(",");
-        Sort sortOrder = Sort.by(Sort.Direction.fromString(sortParams[1]), sortParams[0]);
-        Pageable pageable = PageRequest.of(page, size, sortOrder);
+            @RequestParam(defaultValue = "newest") String sort) {
+        Pageable pageable = PageRequest.of(page, size, TopicService.postSort(sort));
         TopicWithPostsDto data = topicService.getTopicWithPosts(id, pageable);
         return ResponseEntity.ok(data);
     }
 
     
     @GetMapping("/{id}/posts")
-    public ResponseEntity<Page<PostResponseDto>> getTopicPosts(
+    public ResponseEntity<Page<PostSummaryDto>> getTopicPosts(
             @PathVariable Long id,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<PostResponseDto> posts = topicService.getTopicPosts(id, pageable);
+        Pageable pageable = PageRequest.of(page, size, PostService.NEWEST_FIRST);
+        Page<PostSummaryDto> posts = topicService.getTopicPosts(id, pageable);
         return ResponseEntity.ok(posts);
     }
 
+    @GetMapping("/{id}/posts/slice")
+    public ResponseEntity<Slice<PostSummaryDto>> getTopicPostsSlice(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Pageable pageable = PageRequest.of(page, size, PostService.NEWEST_FIRST);
+        return ResponseEntity.ok(topicService.getTopicPostsSlice(id, pageable));
+    }
+
+    @PostMapping("/{id}/subscribe")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> subscribe(@PathVariable Long id) {
+        Long userId = userService.getCurrentUserId();
+        try {
+            timelineService.subscribe(userId, id);
+            return ResponseEntity.ok().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}/subscribe")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> unsubscribe(@PathVariable Long id) {
+        Long userId = userService.getCurrentUserId();
+        try {
+            timelineService.unsubscribe(userId, id);
+            return ResponseEntity.ok().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/subscriptions")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<Long>> getSubscriptions() {
+        return ResponseEntity.ok(timelineService.getSubscribedTopicIds(userService.getCurrentUserId()));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<TopicDto> getTopicById(@PathVariable Long id) {
         TopicDto topicDto = topicService.getTopicDtoById(id);
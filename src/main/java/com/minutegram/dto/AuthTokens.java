@@ -0,0 +1,21 @@
+package com.minutegram.dto;
+
+/**
+ * A short-lived access token and the refresh token that renews it.
+ */
+public class AuthTokens {
+    private final String accessToken;
+    private final String refreshToken;
+    // Access token lifetime in seconds.
+    private final long expiresIn;
+
+    public AuthTokens(String accessToken, String refreshToken, long expiresIn) {
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
+
+    public String getAccessToken() { return accessToken; }
+    public String getRefreshToken() { return refreshToken; }
+    public long getExpiresIn() { return expiresIn; }
+}
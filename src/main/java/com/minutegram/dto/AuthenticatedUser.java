@@ -0,0 +1,29 @@
+package com.minutegram.dto;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * The principal JwtAuthFilter puts in the security context, built from the token's claims.
+ * getName() is the email (the token subject), as it was when the principal was a plain string.
+ */
+public class AuthenticatedUser implements AuthenticatedPrincipal {
+    private final Long id;
+    private final String email;
+    private final String displayName;
+
+    public AuthenticatedUser(Long id, String email, String displayName) {
+        this.id = id;
+        this.email = email;
+        this.displayName = displayName;
+    }
+
+    public Long getId() { return id; }
+    public String getEmail() { return email; }
+    public String getDisplayName() { return displayName; }
+
+    @Override
+    public String getName() { return email; }
+
+    @Override
+    public String toString() { return email; }
+}
@@ -0,0 +1,70 @@
+package com.minutegram.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One comment in a paginated thread.
+ * Only the first few direct replies are inlined; replyCount tells the client how many there are,
+ * and repliesCursor (when not null) continues the reply list via /api/comments/{id}/replies/page.
+ */
+public class CommentNodeDto {
+    private Long id;
+    private String content;
+    private String authorName;
+    private LocalDateTime createdAt;
+    private Long parentCommentId;
+    private int replyCount;
+    private int depth;
+    @JsonIgnore
+    private String path;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<CommentNodeDto> replies = new ArrayList<>();
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String repliesCursor;
+
+    public CommentNodeDto() {}
+
+    // Constructor for JPA projections.
+    public CommentNodeDto(Long id, String content, String authorName, LocalDateTime createdAt, Long parentCommentId, int replyCount) {
+        this.id = id;
+        this.content = content;
+        this.authorName = authorName;
+        this.createdAt = createdAt;
+        this.parentCommentId = parentCommentId;
+        this.replyCount = replyCount;
+    }
+
+    // Constructor for subtree projections, which also need the depth and the path (for the cursor).
+    public CommentNodeDto(Long id, String content, String authorName, LocalDateTime createdAt, Long parentCommentId, int replyCount, int depth, String path) {
+        this(id, content, authorName, createdAt, parentCommentId, replyCount);
+        this.depth = depth;
+        this.path = path;
+    }
+
+    // --- GETTERS AND SETTERS ---
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; }
+    public String getAuthorName() { return authorName; }
+    public void setAuthorName(String authorName) { this.authorName = authorName; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public Long getParentCommentId() { return parentCommentId; }
+    public void setParentCommentId(Long parentCommentId) { this.parentCommentId = parentCommentId; }
+    public int getReplyCount() { return replyCount; }
+    public void setReplyCount(int replyCount) { this.replyCount = replyCount; }
+    public int getDepth() { return depth; }
+    public void setDepth(int depth) { this.depth = depth; }
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+    public List<CommentNodeDto> getReplies() { return replies; }
+    public void setReplies(List<CommentNodeDto> replies) { this.replies = replies; }
+    public String getRepliesCursor() { return repliesCursor; }
+    public void setRepliesCursor(String repliesCursor) { this.repliesCursor = repliesCursor; }
+}
@@ -0,0 +1,28 @@
+package com.minutegram.dto;
+
+/**
+ * What creating a comment needs to know about its post and parent, read in one query
+ * (see CommentRepository.findCommentTarget). parentId is null when no parent was requested,
+ * or when the requested one does not exist or belongs to another post.
+ */
+public class CommentTargetDto {
+    private final Long postId;
+    private final String postTitle;
+    private final Long parentId;
+    private final Integer parentDepth;
+    private final String parentPath;
+
+    public CommentTargetDto(Long postId, String postTitle, Long parentId, Integer parentDepth, String parentPath) {
+        this.postId = postId;
+        this.postTitle = postTitle;
+        this.parentId = parentId;
+        this.parentDepth = parentDepth;
+        this.parentPath = parentPath;
+    }
+
+    public Long getPostId() { return postId; }
+    public String getPostTitle() { return postTitle; }
+    public Long getParentId() { return parentId; }
+    public Integer getParentDepth() { return parentDepth; }
+    public String getParentPath() { return parentPath; }
+}
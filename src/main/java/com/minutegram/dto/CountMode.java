@@ -0,0 +1,26 @@
+package com.minutegram.dto;
+
+import com.minutegram.exception.InvalidInputException;
+
+import java.util.Locale;
+
+/**
+ * How a paginated listing reports its total.
+ * EXACT runs a COUNT query, APPROXIMATE uses the planner's row estimate for the table.
+ * Listings that need no total at all are served by the separate /slice routes.
+ */
+public enum CountMode {
+    EXACT,
+    APPROXIMATE;
+
+    public static CountMode parse(String value) {
+        if (value == null || value.isBlank()) {
+            return EXACT;
+        }
+        try {
+            return CountMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException("countMode must be one of exact, approximate");
+        }
+    }
+}
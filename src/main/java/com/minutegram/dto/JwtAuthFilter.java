@@ -44,29 +44,28 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         token = authHeader.substring(7);
 
-        if (tokenManagementService.isTokenBlacklisted(token)) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            return;
-        }
-
         try {
-            // Extract information DIRECTLY FROM THE TOKEN.
-            userEmail = jwtService.extractUsername(token); // Or your equivalent method
+            // Verified once per request (or answered from the verified-token cache).
+            VerifiedToken verified = jwtService.verify(token);
+            if (tokenManagementService.isRevoked(verified)) {
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                return;
+            }
+            userEmail = verified.getSubject();
 
             // Only set authentication if it's not already set
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
                 // NO DATABASE CALL HERE.
                 
-                List<String> roles = jwtService.extractRoles(token);
-                List<SimpleGrantedAuthority> authorities = roles.stream()
+                List<SimpleGrantedAuthority> authorities = verified.getRoles().stream()
                         .map(SimpleGrantedAuthority::new)
                         .collect(Collectors.toList());
 
                 
-                // We create a token with the principal's name and their authorities.
+                // We create a token with the principal's id, email and name and their authorities.
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userEmail, // The principal can just be the username string
+                        new AuthenticatedUser(verified.getUserId(), userEmail, verified.getName()),
                         null,      // No credentials needed
                         authorities
                 );
@@ -1,20 +1,35 @@
 package com.minutegram.dto;
 
+import com.minutegram.cache.CacheRegistry;
+import com.minutegram.cache.CacheStats;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -27,32 +42,129 @@ public class JwtService {
     @Value("${jwt.expiration}")
     private long expirationTime;
 
+    @Value("${minutegram.cache.jwt.max-size:10000}")
+    private int cacheMaxSize;
+
+    @Value("${minutegram.cache.jwt.ttl-seconds:300}")
+    private long cacheTtlSeconds;
+
+    @Autowired
+    private CacheRegistry cacheRegistry;
+
+    // Built once; the parser is immutable and thread-safe.
+    private Key signKey;
+    private JwtParser parser;
+
+    private record CachedToken(VerifiedToken token, long cachedUntilNanos) {}
+
+    // Claims of tokens whose signature has already been checked, keyed by the token's hash.
+    // Every request reads it, so it is a ConcurrentHashMap rather than a locked LRU: expiry is
+    // checked on read, expired entries are swept on a schedule, and when the map is full new
+    // tokens are verified but not cached until the next sweep makes room.
+    private final ConcurrentHashMap<String, CachedToken> verifiedTokens = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long cacheTtlNanos;
+
+    @PostConstruct
+    void init() {
+        signKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder().setSigningKey(signKey).build();
+        cacheTtlNanos = TimeUnit.SECONDS.toNanos(cacheTtlSeconds);
+        cacheRegistry.registerStats(() -> new CacheStats("jwt-verified", verifiedTokens.size(), cacheMaxSize,
+                hits.sum(), misses.sum(), evictions.sum()));
+    }
+
     // --- NEW PRIMARY TOKEN GENERATION METHOD ---
     // This now accepts authorities (roles) and embeds them as a "roles" claim in the JWT.
-    public String generateToken(String username, Collection<? extends GrantedAuthority> authorities) {
+    // The user id ("uid") and display name ("name") are embedded too, so requests can act
+    // as the user without looking them up, and "sid" names the refresh session that issued it.
+    public String generateToken(Long userId, String name, String username, Long sessionId,
+                                Collection<? extends GrantedAuthority> authorities) {
         Map<String, Object> claims = new HashMap<>();
         List<String> roles = authorities.stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList());
         claims.put("roles", roles);
+        claims.put("uid", userId);
+        claims.put("name", name);
+        claims.put("sid", sessionId);
 
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(username)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expirationTime))
-                .signWith(getSignKey(), SignatureAlgorithm.HS256)
+                .signWith(signKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     // --- JWT EXTRACTION METHODS ---
+
+    /**
+     * Verifies the token and returns its claims. A token seen before is answered from the cache
+     * (keyed by its SHA-256) without checking the signature or decoding it again; the cached
+     * entry is rejected once the token's own expiry has passed.
+     *
+     * @throws JwtException if the token is malformed, badly signed or expired
+     */
+    public VerifiedToken verify(String token) {
+        String key = hash(token);
+        CachedToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (cached.token().isExpired(Instant.now())) {
+                if (verifiedTokens.remove(key, cached)) {
+                    evictions.increment();
+                }
+                throw new JwtException("JWT expired at " + cached.token().getExpiresAt());
+            }
+            if (cached.cachedUntilNanos() - System.nanoTime() > 0) {
+                hits.increment();
+                return cached.token();
+            }
+            if (verifiedTokens.remove(key, cached)) {
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        Claims claims = extractAllClaims(token);
+        @SuppressWarnings("unchecked")
+        List<String> roles = claims.get("roles", List.class);
+        // Tokens issued before jti was added are identified by their hash.
+        String tokenId = claims.getId() != null ? claims.getId() : key;
+        Number userId = claims.get("uid", Number.class);
+        Number sessionId = claims.get("sid", Number.class);
+        VerifiedToken verified = new VerifiedToken(tokenId, claims.getSubject(),
+                userId == null ? null : userId.longValue(), claims.get("name", String.class),
+                sessionId == null ? null : sessionId.longValue(), roles, claims.getExpiration().toInstant());
+        if (verifiedTokens.size() < cacheMaxSize) {
+            verifiedTokens.put(key, new CachedToken(verified, System.nanoTime() + cacheTtlNanos));
+        }
+        return verified;
+    }
+
+    @Scheduled(initialDelayString = "${minutegram.cache.jwt.sweep-interval-ms:60000}",
+               fixedDelayString = "${minutegram.cache.jwt.sweep-interval-ms:60000}")
+    public void sweepVerifiedTokens() {
+        Instant now = Instant.now();
+        long nowNanos = System.nanoTime();
+        verifiedTokens.values().removeIf(cached -> {
+            boolean stale = cached.token().isExpired(now) || cached.cachedUntilNanos() - nowNanos <= 0;
+            if (stale) {
+                evictions.increment();
+            }
+            return stale;
+        });
+    }
+
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getSubject();
     }
-    
-    @SuppressWarnings("unchecked")
+
     public List<String> extractRoles(String token) {
-        return extractClaim(token, claims -> claims.get("roles", List.class));
+        return verify(token).getRoles();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -61,15 +173,25 @@ public class JwtService {
     }
     
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Access token lifetime in seconds.
+     */
+    public long getExpirationSeconds() {
+        return expirationTime / 1000;
     }
 
-    private Key getSignKey() {
-        byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * SHA-256 of a token, base64url encoded; also how refresh tokens are stored.
+     */
+    public static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
-}
\ No newline at end of file
+}
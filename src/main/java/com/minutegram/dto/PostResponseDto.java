@@ -65,8 +65,8 @@ public class PostResponseDto {
         dto.setImageUrl(post.getImageUrl());
         dto.setMediaType(post.getMediaType());
         dto.setCreatedAt(post.getCreatedAt());
-        dto.setLikesCount(post.getLikedByUsers() != null ? post.getLikedByUsers().size() : 0);
-        dto.setCommentsCount(post.getComments() != null ? post.getComments().size() : 0);
+        dto.setLikesCount(post.getLikeCount());
+        dto.setCommentsCount(post.getCommentCount());
         return dto;
     }
 }
\ No newline at end of file
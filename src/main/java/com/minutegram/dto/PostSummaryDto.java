@@ -0,0 +1,90 @@
+package com.minutegram.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * List-view projection of a post. Instead of the full content (up to 10,000 chars) it carries
+ * an excerpt of at most EXCERPT_LENGTH characters, cut on a word boundary, and a truncated flag
+ * telling the client to link to the detail endpoint for the rest.
+ *
+ * Queries select SUBSTRING(p.content, 1, EXCERPT_FETCH_LENGTH): one character more than the
+ * excerpt, which is enough to know whether the content was cut without reading all of it.
+ * SUBSTRING counts code points, so lengths here are code points too, not UTF-16 chars: an
+ * emoji is one character of the excerpt, not two.
+ */
+public class PostSummaryDto {
+
+    public static final int EXCERPT_LENGTH = 280;
+    public static final int EXCERPT_FETCH_LENGTH = EXCERPT_LENGTH + 1;
+
+    private Long id;
+    private String title;
+    private String excerpt;
+    private boolean truncated;
+    private String authorName;
+    private String topicName;
+    private String imageUrl;
+    private String mediaType;
+    private LocalDateTime createdAt;
+    private int likesCount;
+    private int commentsCount;
+
+    public PostSummaryDto() {}
+
+    // Called by JPA constructor projections with the content prefix, see the class comment.
+    public PostSummaryDto(Long id, String contentPrefix, String title, String authorName, String topicName, String imageUrl, String mediaType, LocalDateTime createdAt, int likesCount, int commentsCount) {
+        this.id = id;
+        this.title = title;
+        this.authorName = authorName;
+        this.topicName = topicName;
+        this.imageUrl = imageUrl;
+        this.mediaType = mediaType;
+        this.createdAt = createdAt;
+        this.likesCount = likesCount;
+        this.commentsCount = commentsCount;
+        this.truncated = contentPrefix != null
+                && contentPrefix.codePointCount(0, contentPrefix.length()) > EXCERPT_LENGTH;
+        this.excerpt = truncated ? cutOnWordBoundary(contentPrefix) : contentPrefix;
+    }
+
+    // Only called with more than EXCERPT_LENGTH code points.
+    static String cutOnWordBoundary(String text) {
+        // The char index of code point EXCERPT_LENGTH, so the hard cut never splits a surrogate pair.
+        int end = text.offsetByCodePoints(0, EXCERPT_LENGTH);
+        // Back up to the last whitespace, unless that would throw away more than half the excerpt
+        // (e.g. one very long URL); then a hard cut reads better than a stub. Whitespace is never
+        // part of a surrogate pair, so cutting before it is safe too.
+        int cut = end;
+        while (cut > 0 && !Character.isWhitespace(text.charAt(cut))) {
+            cut--;
+        }
+        if (text.codePointCount(0, cut) < EXCERPT_LENGTH / 2) {
+            cut = end;
+        }
+        return text.substring(0, cut).stripTrailing();
+    }
+
+    // --- GETTERS AND SETTERS ---
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getExcerpt() { return excerpt; }
+    public void setExcerpt(String excerpt) { this.excerpt = excerpt; }
+    public boolean isTruncated() { return truncated; }
+    public void setTruncated(boolean truncated) { this.truncated = truncated; }
+    public String getAuthorName() { return authorName; }
+    public void setAuthorName(String authorName) { this.authorName = authorName; }
+    public String getTopicName() { return topicName; }
+    public void setTopicName(String topicName) { this.topicName = topicName; }
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+    public String getMediaType() { return mediaType; }
+    public void setMediaType(String mediaType) { this.mediaType = mediaType; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public int getLikesCount() { return likesCount; }
+    public void setLikesCount(int likesCount) { this.likesCount = likesCount; }
+    public int getCommentsCount() { return commentsCount; }
+    public void setCommentsCount(int commentsCount) { this.commentsCount = commentsCount; }
+}
@@ -0,0 +1,12 @@
+package com.minutegram.dto;
+public class RefreshTokenRequest {
+    private String refreshToken;
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+}
@@ -0,0 +1,26 @@
+package com.minutegram.dto;
+
+import java.time.Instant;
+
+/**
+ * A signed-in device, as listed on /api/auth/sessions.
+ */
+public class SessionDto {
+    private final Long id;
+    private final String deviceName;
+    private final Instant createdAt;
+    private final Instant lastUsedAt;
+
+    // Constructor for JPA projections.
+    public SessionDto(Long id, String deviceName, Instant createdAt, Instant lastUsedAt) {
+        this.id = id;
+        this.deviceName = deviceName;
+        this.createdAt = createdAt;
+        this.lastUsedAt = lastUsedAt;
+    }
+
+    public Long getId() { return id; }
+    public String getDeviceName() { return deviceName; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getLastUsedAt() { return lastUsedAt; }
+}
@@ -10,6 +10,7 @@ public class TopicDto {
     private Long creatorId;
     private String creatorName;
     private int postCount;
+    private LocalDateTime lastPostAt;
 
     // Default constructor for frameworks like Jackson
     public TopicDto() {}
@@ -26,6 +27,12 @@ public class TopicDto {
         this.postCount = postCount;
     }
 
+    // For projections that read the denormalized Topic.postCount and Topic.lastPostAt.
+    public TopicDto(Long id, String name, String description, LocalDateTime createdAt, Long creatorId, String creatorName, int postCount, LocalDateTime lastPostAt) {
+        this(id, name, description, createdAt, creatorId, creatorName, postCount);
+        this.lastPostAt = lastPostAt;
+    }
+
     // --- GETTERS AND SETTERS ---
     // (Your existing getters and setters are fine, keep them here)
     public Long getId() { return id; }
@@ -42,4 +49,6 @@ public class TopicDto {
     public void setCreatorName(String creatorName) { this.creatorName = creatorName; }
     public int getPostCount() { return postCount; }
     public void setPostCount(int postCount) { this.postCount = postCount; }
+    public LocalDateTime getLastPostAt() { return lastPostAt; }
+    public void setLastPostAt(LocalDateTime lastPostAt) { this.lastPostAt = lastPostAt; }
 }
\ No newline at end of file
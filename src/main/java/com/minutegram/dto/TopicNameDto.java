@@ -0,0 +1,17 @@
+package com.minutegram.dto;
+
+/**
+ * A topic's id and name, e.g. for the post composer's topic picker.
+ */
+public class TopicNameDto {
+    private final Long id;
+    private final String name;
+
+    public TopicNameDto(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public Long getId() { return id; }
+    public String getName() { return name; }
+}
@@ -0,0 +1,20 @@
+package com.minutegram.dto;
+
+/**
+ * A typeahead suggestion for the post composer's topic picker.
+ */
+public class TopicSuggestionDto {
+    private final Long id;
+    private final String name;
+    private final int postCount;
+
+    public TopicSuggestionDto(Long id, String name, int postCount) {
+        this.id = id;
+        this.name = name;
+        this.postCount = postCount;
+    }
+
+    public Long getId() { return id; }
+    public String getName() { return name; }
+    public int getPostCount() { return postCount; }
+}
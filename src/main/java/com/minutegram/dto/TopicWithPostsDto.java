@@ -4,14 +4,14 @@ import org.springframework.data.domain.Page;
 
 /**
  * A DTO to bundle a Topic with a paginated list of its Posts.
- * This is for the optimized TopicPage endpoint.
+ * This is for the optimized TopicPage endpoint. Posts are summaries (excerpts), as in the other list views.
  */
 public class TopicWithPostsDto {
 
     private TopicDto topic;
-    private Page<PostResponseDto> posts;
+    private Page<PostSummaryDto> posts;
 
-    public TopicWithPostsDto(TopicDto topic, Page<PostResponseDto> posts) {
+    public TopicWithPostsDto(TopicDto topic, Page<PostSummaryDto> posts) {
         this.topic = topic;
         this.posts = posts;
     }
@@ -25,11 +25,11 @@ public class TopicWithPostsDto {
         this.topic = topic;
     }
 
-    public Page<PostResponseDto> getPosts() {
+    public Page<PostSummaryDto> getPosts() {
         return posts;
     }
 
-    public void setPosts(Page<PostResponseDto> posts) {
+    public void setPosts(Page<PostSummaryDto> posts) {
         this.posts = posts;
     }
 }
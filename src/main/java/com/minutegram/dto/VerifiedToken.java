@@ -0,0 +1,43 @@
+package com.minutegram.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The claims the auth filter needs from a JWT whose signature has been checked.
+ */
+public class VerifiedToken {
+    private final String tokenId;
+    private final String subject;
+    private final Long userId;
+    private final String name;
+    private final Long sessionId;
+    private final List<String> roles;
+    private final Instant expiresAt;
+
+    public VerifiedToken(String tokenId, String subject, Long userId, String name, Long sessionId,
+                         List<String> roles, Instant expiresAt) {
+        this.tokenId = tokenId;
+        this.subject = subject;
+        this.userId = userId;
+        this.name = name;
+        this.sessionId = sessionId;
+        this.roles = roles == null ? List.of() : List.copyOf(roles);
+        this.expiresAt = expiresAt;
+    }
+
+    // The jti claim, used to revoke the token.
+    public String getTokenId() { return tokenId; }
+    public String getSubject() { return subject; }
+    // uid and name claims; null for tokens issued before they were added.
+    public Long getUserId() { return userId; }
+    public String getName() { return name; }
+    // sid claim: the refresh session that issued the token.
+    public Long getSessionId() { return sessionId; }
+    public List<String> getRoles() { return roles; }
+    public Instant getExpiresAt() { return expiresAt; }
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -6,7 +6,22 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        // Top-level comments of a post (parent_comment_id IS NULL), newest first
+        @Index(name = "idx_comment_post_parent_created", columnList = "post_id, parent_comment_id, created_at DESC, id DESC"),
+        // Replies of one comment, oldest first
+        @Index(name = "idx_comment_parent_created", columnList = "parent_comment_id, created_at, id"),
+        // Subtrees in display order: a range over path within one post
+        @Index(name = "idx_comment_post_path", columnList = "post_id, path"),
+        // Admin and moderation listings, newest first
+        @Index(name = "idx_comment_created_id", columnList = "created_at DESC, id DESC")
+})
 public class Comment {
+    // Ids are written as fixed-width decimal segments, so comparing paths as strings
+    // orders a tree depth-first with siblings by id (i.e. creation order).
+    public static final int PATH_SEGMENT_LENGTH = 19;
+    public static final int MAX_DEPTH = 99;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -17,6 +32,20 @@ public class Comment {
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
+    // Number of direct replies. Denormalized like Post.commentCount, maintained by
+    // CommentService and the delete paths, repaired by PostCounterReconciler.
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private int replyCount = 0;
+
+    // Materialized path: the ids of all ancestors and of this comment, root first.
+    // Set right after insert (it needs the generated id); null only until CommentPathBackfill has run.
+    @Column(length = PATH_SEGMENT_LENGTH * (MAX_DEPTH + 1))
+    private String path;
+
+    // 0 for a top-level comment.
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int depth = 0;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnore
     @JoinColumn(name = "post_id", nullable = false)
@@ -76,6 +105,44 @@ public class Comment {
         this.user = user;
     }
 
+    public int getReplyCount() {
+        return replyCount;
+    }
+
+    public void setReplyCount(int replyCount) {
+        this.replyCount = replyCount;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public static String pathSegment(long id) {
+        return String.format("%0" + PATH_SEGMENT_LENGTH + "d", id);
+    }
+
+    /**
+     * Exclusive upper bound of the subtree rooted at the comment with this path: the same path
+     * with the last id incremented. Every descendant's path lies in [path, subtreeUpperBound(path)).
+     */
+    public static String subtreeUpperBound(String path) {
+        int lastSegment = path.length() - PATH_SEGMENT_LENGTH;
+        long lastId = Long.parseLong(path.substring(lastSegment));
+        return path.substring(0, lastSegment) + pathSegment(lastId + 1);
+    }
+
     public Comment getParentComment() {
         return parentComment;
     }
@@ -13,6 +13,14 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
+@Table(indexes = {
+        // Backs the keyset-paginated feed: ORDER BY createdAt DESC, id DESC
+        @Index(name = "idx_post_created_at_id", columnList = "created_at DESC, id DESC"),
+        // Per-topic feeds and merge-on-read home timelines
+        @Index(name = "idx_post_topic_created_at_id", columnList = "topic_id, created_at DESC, id DESC"),
+        // "Popular" sort of the topic page
+        @Index(name = "idx_post_topic_like_count_id", columnList = "topic_id, like_count DESC, id DESC")
+})
 public class Post {
 
     @Id
@@ -33,6 +41,15 @@ public class Post {
 
     private LocalDateTime createdAt;
 
+    // Denormalized counters, kept in sync by PostService/CommentService and repaired by
+    // PostCounterReconciler. Not updatable through the entity so a save() of a stale
+    // Post can never overwrite an increment made by a concurrent request.
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private int likeCount = 0;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private int commentCount = 0;
+
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
     @JsonIgnore
@@ -131,6 +148,12 @@ public class Post {
         this.mediaType = mediaType;
     }
 
+    public int getLikeCount() { return likeCount; }
+    public void setLikeCount(int likeCount) { this.likeCount = likeCount; }
+
+    public int getCommentCount() { return commentCount; }
+    public void setCommentCount(int commentCount) { this.commentCount = commentCount; }
+
     public Set<User> getLikedByUsers() { return likedByUsers; }
     public void setLikedByUsers(Set<User> likedByUsers) { this.likedByUsers = likedByUsers; }
 
@@ -0,0 +1,93 @@
+package com.minutegram.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * One signed-in device. The client holds an opaque refresh token; only its SHA-256 is stored.
+ * Every refresh replaces the token, and the previous hash is kept so a replayed (stolen) token
+ * can be recognised and the session ended. The id and expiry of the last access token issued
+ * are kept too, so signing the device out can revoke that token instead of letting it run out.
+ */
+@Entity
+@Table(name = "refresh_session",
+        uniqueConstraints = @UniqueConstraint(name = "uk_refresh_session_token_hash", columnNames = "token_hash"),
+        indexes = {
+                @Index(name = "idx_refresh_session_previous_token_hash", columnList = "previous_token_hash"),
+                // Listing a user's devices and signing them all out.
+                @Index(name = "idx_refresh_session_user", columnList = "user_id"),
+                // The purge deletes by expiry.
+                @Index(name = "idx_refresh_session_expires_at", columnList = "expires_at")
+        })
+public class RefreshSession {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(name = "previous_token_hash", length = 64)
+    private String previousTokenHash;
+
+    private String deviceName;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant lastUsedAt;
+
+    // Slides forward on every refresh, but never past createdAt plus the maximum session age.
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "access_token_id", length = 36)
+    private String accessTokenId;
+
+    @Column(name = "access_token_expires_at")
+    private Instant accessTokenExpiresAt;
+
+    public RefreshSession() {
+        this.createdAt = Instant.now();
+        this.lastUsedAt = this.createdAt;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+
+    public String getTokenHash() { return tokenHash; }
+    public void setTokenHash(String tokenHash) { this.tokenHash = tokenHash; }
+
+    public String getPreviousTokenHash() { return previousTokenHash; }
+    public void setPreviousTokenHash(String previousTokenHash) { this.previousTokenHash = previousTokenHash; }
+
+    public String getDeviceName() { return deviceName; }
+    public void setDeviceName(String deviceName) { this.deviceName = deviceName; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public Instant getLastUsedAt() { return lastUsedAt; }
+    public void setLastUsedAt(Instant lastUsedAt) { this.lastUsedAt = lastUsedAt; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+
+    public String getAccessTokenId() { return accessTokenId; }
+    public void setAccessTokenId(String accessTokenId) { this.accessTokenId = accessTokenId; }
+
+    public Instant getAccessTokenExpiresAt() { return accessTokenExpiresAt; }
+    public void setAccessTokenExpiresAt(Instant accessTokenExpiresAt) { this.accessTokenExpiresAt = accessTokenExpiresAt; }
+}
@@ -0,0 +1,37 @@
+package com.minutegram.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * A revoked JWT, kept until the token would have expired anyway.
+ */
+@Entity
+@Table(name = "revoked_token", indexes = {
+        // The purge deletes by expiry.
+        @Index(name = "idx_revoked_token_expires_at", columnList = "expires_at")
+})
+public class RevokedToken {
+
+    // The token's jti claim (or, for tokens issued without one, the hash JwtService keys them by).
+    @Id
+    @Column(length = 64)
+    private String tokenId;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    public RevokedToken() {}
+
+    public RevokedToken(String tokenId, Instant expiresAt) {
+        this.tokenId = tokenId;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getTokenId() { return tokenId; }
+    public void setTokenId(String tokenId) { this.tokenId = tokenId; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+}
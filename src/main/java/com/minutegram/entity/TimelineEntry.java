@@ -0,0 +1,54 @@
+package com.minutegram.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One post in one user's materialized home timeline, written when the post is created
+ * (fan-out on write). Kept deliberately compact: plain ids and the post's createdAt
+ * copied over, so reading a page is a single range scan of idx_timeline_user_created.
+ * There are no foreign keys: entries are removed with their post or topic, and
+ * TimelineService's scheduled trim caps each timeline and drops entries of deleted users.
+ */
+@Entity
+@Table(
+        uniqueConstraints = @UniqueConstraint(name = "uk_timeline_user_post", columnNames = {"user_id", "post_id"}),
+        indexes = {
+                @Index(name = "idx_timeline_user_created", columnList = "user_id, created_at DESC, post_id DESC"),
+                @Index(name = "idx_timeline_topic", columnList = "topic_id"),
+                @Index(name = "idx_timeline_post", columnList = "post_id")
+        })
+public class TimelineEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+
+    @Column(name = "topic_id", nullable = false)
+    private Long topicId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getPostId() { return postId; }
+    public void setPostId(Long postId) { this.postId = postId; }
+
+    public Long getTopicId() { return topicId; }
+    public void setTopicId(Long topicId) { this.topicId = topicId; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -10,6 +10,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = {
+        // Topic list sorted by activity / by size
+        @Index(name = "idx_topic_last_post_at", columnList = "last_post_at DESC, id DESC"),
+        @Index(name = "idx_topic_post_count", columnList = "post_count DESC, id DESC")
+})
 public class Topic {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,6 +29,22 @@ public class Topic {
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
+    // Denormalized, maintained by TopicSubscriptionRepository's insert and delete statements. Decides
+    // between fan-out on write and merge on read for the topic's posts; see TimelineService.
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private int subscriberCount = 0;
+
+    // Denormalized like Post.commentCount: updated by the post create and delete paths in the same
+    // transaction, repaired by PostCounterReconciler.
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private int postCount = 0;
+
+    // Creation time of the newest post, or of the topic itself while it has none. Deleting the newest
+    // post does not move it back until PostCounterReconciler runs. NULL on rows older than the column
+    // until the reconciler's startup backfill, so the activity sort coalesces it with createdAt.
+    @Column(updatable = false)
+    private LocalDateTime lastPostAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "creator_id", nullable = false)
     @JsonIgnore
@@ -35,6 +56,7 @@ public class Topic {
 
     public Topic(){
         this.createdAt = LocalDateTime.now();
+        this.lastPostAt = this.createdAt;
     }
 
     public Long getId() {
@@ -77,6 +99,15 @@ public class Topic {
         this.posts = posts;
     }
 
+    public int getSubscriberCount() { return subscriberCount; }
+    public void setSubscriberCount(int subscriberCount) { this.subscriberCount = subscriberCount; }
+
+    public int getPostCount() { return postCount; }
+    public void setPostCount(int postCount) { this.postCount = postCount; }
+
+    public LocalDateTime getLastPostAt() { return lastPostAt; }
+    public void setLastPostAt(LocalDateTime lastPostAt) { this.lastPostAt = lastPostAt; }
+
     public User getCreator(){
         return creator;
     }
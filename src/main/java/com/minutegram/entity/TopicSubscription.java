@@ -0,0 +1,49 @@
+package com.minutegram.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+        uniqueConstraints = @UniqueConstraint(name = "uk_topic_subscription_user_topic", columnNames = {"user_id", "topic_id"}),
+        indexes = {
+                // Fan-out reads every subscriber of one topic.
+                @Index(name = "idx_topic_subscription_topic", columnList = "topic_id, user_id")
+        })
+public class TopicSubscription {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "topic_id", nullable = false)
+    @JsonIgnore
+    private Topic topic;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public TopicSubscription() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+
+    public Topic getTopic() { return topic; }
+    public void setTopic(Topic topic) { this.topic = topic; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
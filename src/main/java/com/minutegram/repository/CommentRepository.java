@@ -1,17 +1,23 @@
 package com.minutegram.repository;
 
+import com.minutegram.dto.CommentNodeDto;
 import com.minutegram.dto.CommentResponseDto;
+import com.minutegram.dto.CommentTargetDto;
 import com.minutegram.entity.Comment;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
@@ -28,12 +34,249 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
            "WHERE c.post.id = :postId")
     List<CommentResponseDto> findDtosByPostId(@Param("postId") Long postId);
 
+    /**
+     * Validates a new comment's target in one query: empty if the post does not exist; parentId is
+     * null if parentId was null, or names a comment that does not exist or is on another post.
+     */
+    @Query("SELECT new com.minutegram.dto.CommentTargetDto(p.id, p.title, parent.id, parent.depth, parent.path) " +
+           "FROM Post p " +
+           "LEFT JOIN Comment parent ON parent.id = :parentId AND parent.post.id = p.id " +
+           "WHERE p.id = :postId")
+    Optional<CommentTargetDto> findCommentTarget(@Param("postId") Long postId, @Param("parentId") Long parentId);
+
+    /**
+     * The direct replies of one comment as DTOs, oldest first, with author and post title joined in.
+     */
+    @Query("SELECT new com.minutegram.dto.CommentResponseDto(c.id, c.content, c.user.name, c.createdAt, c.parentComment.id, c.post.title) " +
+           "FROM Comment c " +
+           "WHERE c.parentComment.id = :parentCommentId " +
+           "ORDER BY c.createdAt, c.id")
+    List<CommentResponseDto> findDtosByParentCommentId(@Param("parentCommentId") Long parentCommentId);
+
     // This method is still used for fetching replies to a comment, although the new getPostComments handles this.
     // It is less performant if used in a loop, but can be kept for specific use cases.
     List<Comment> findByParentCommentIdOrderByCreatedAt(Long parentCommentId);
     
-    // Kept for the admin panel search functionality
-    Page<Comment> findByContentContainingIgnoreCase(String content, Pageable pageable);
+    // --- Admin and moderation listings ---
+    // All newest first. Searches use ILIKE, which the pg_trgm index idx_comment_content_trgm
+    // (see SearchIndexInitializer) serves even with a leading wildcard; pattern comes from
+    // CommentService.containsPattern.
+
+    @Query(value = "SELECT new com.minutegram.dto.CommentResponseDto(c.id, c.content, c.user.name, c.createdAt, c.parentComment.id, c.post.title) " +
+           "FROM Comment c " +
+           "ORDER BY c.createdAt DESC, c.id DESC",
+           countQuery = "SELECT COUNT(c) FROM Comment c")
+    Page<CommentResponseDto> findDtoPage(Pageable pageable);
+
+    @Query("SELECT new com.minutegram.dto.CommentResponseDto(c.id, c.content, c.user.name, c.createdAt, c.parentComment.id, c.post.title) " +
+           "FROM Comment c " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    Slice<CommentResponseDto> findDtoSlice(Pageable pageable);
+
+    @Query(value = "SELECT new com.minutegram.dto.CommentResponseDto(c.id, c.content, c.user.name, c.createdAt, c.parentComment.id, c.post.title) " +
+           "FROM Comment c " +
+           "WHERE c.content ILIKE :pattern " +
+           "ORDER BY c.createdAt DESC, c.id DESC",
+           countQuery = "SELECT COUNT(c) FROM Comment c WHERE c.content ILIKE :pattern")
+    Page<CommentResponseDto> searchDtoPage(@Param("pattern") String pattern, Pageable pageable);
+
+    @Query("SELECT new com.minutegram.dto.CommentResponseDto(c.id, c.content, c.user.name, c.createdAt, c.parentComment.id, c.post.title) " +
+           "FROM Comment c " +
+           "WHERE c.content ILIKE :pattern " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    Slice<CommentResponseDto> searchDtoSlice(@Param("pattern") String pattern, Pageable pageable);
+
+    // Keyset variants: Pageable is only used as a limit, the position comes from the cursor.
+
+    @Query("SELECT new com.minutegram.dto.CommentResponseDto(c.id, c.content, c.user.name, c.createdAt, c.parentComment.id, c.post.title) " +
+           "FROM Comment c " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CommentResponseDto> findDtosFirstPage(Pageable limit);
+
+    @Query("SELECT new com.minutegram.dto.CommentResponseDto(c.id, c.content, c.user.name, c.createdAt, c.parentComment.id, c.post.title) " +
+           "FROM Comment c " +
+           "WHERE (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CommentResponseDto> findDtosAfter(@Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Pageable limit);
+
+    @Query("SELECT new com.minutegram.dto.CommentResponseDto(c.id, c.content, c.user.name, c.createdAt, c.parentComment.id, c.post.title) " +
+           "FROM Comment c " +
+           "WHERE c.content ILIKE :pattern " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CommentResponseDto> searchDtosFirstPage(@Param("pattern") String pattern, Pageable limit);
+
+    @Query("SELECT new com.minutegram.dto.CommentResponseDto(c.id, c.content, c.user.name, c.createdAt, c.parentComment.id, c.post.title) " +
+           "FROM Comment c " +
+           "WHERE c.content ILIKE :pattern " +
+           "AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CommentResponseDto> searchDtosAfter(@Param("pattern") String pattern,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id,
+                                             Pageable limit);
+
+    @Query("SELECT c.post.id FROM Comment c WHERE c.id = :commentId")
+    Optional<Long> findPostIdById(@Param("commentId") Long commentId);
+
+    // --- Paginated threads (see CommentService.getThread) ---
+
+    /**
+     * First page of a post's top-level comments, newest first.
+     * Pass PageRequest.of(0, n) to limit the result; no count query is issued.
+     */
+    @Query("SELECT new com.minutegram.dto.CommentNodeDto(c.id, c.content, c.user.name, c.createdAt, c.parentComment.id, c.replyCount) " +
+           "FROM Comment c " +
+           "WHERE c.post.id = :postId AND c.parentComment IS NULL " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CommentNodeDto> findThreadFirstPage(@Param("postId") Long postId, Pageable limit);
+
+    @Query("SELECT new com.minutegram.dto.CommentNodeDto(c.id, c.content, c.user.name, c.createdAt, c.parentComment.id, c.replyCount) " +
+           "FROM Comment c " +
+           "WHERE c.post.id = :postId AND c.parentComment IS NULL " +
+           "AND c.createdAt <= :createdAt " +
+           "AND (c.createdAt < :createdAt OR c.id < :id) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CommentNodeDto> findThreadAfter(@Param("postId") Long postId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Pageable limit);
+
+    /**
+     * First page of the direct replies of one comment, oldest first.
+     */
+    @Query("SELECT new com.minutegram.dto.CommentNodeDto(c.id, c.content, c.user.name, c.createdAt, c.parentComment.id, c.replyCount) " +
+           "FROM Comment c " +
+           "WHERE c.parentComment.id = :parentId " +
+           "ORDER BY c.createdAt, c.id")
+    List<CommentNodeDto> findRepliesFirstPage(@Param("parentId") Long parentId, Pageable limit);
+
+    @Query("SELECT new com.minutegram.dto.CommentNodeDto(c.id, c.content, c.user.name, c.createdAt, c.parentComment.id, c.replyCount) " +
+           "FROM Comment c " +
+           "WHERE c.parentComment.id = :parentId " +
+           "AND c.createdAt >= :createdAt " +
+           "AND (c.createdAt > :createdAt OR c.id > :id) " +
+           "ORDER BY c.createdAt, c.id")
+    List<CommentNodeDto> findRepliesAfter(@Param("parentId") Long parentId,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Pageable limit);
+
+    /**
+     * The first perParent direct replies of each of the given comments, oldest first.
+     * The LATERAL subquery reads at most perParent index entries per parent, however many replies it has,
+     * where a ROW_NUMBER() window over all of them would read every reply before filtering.
+     * Rows are (id, content, authorName, createdAt, parentCommentId, replyCount).
+     */
+    @Query(value = "SELECT r.id, r.content, u.name, r.created_at, r.parent_comment_id, r.reply_count " +
+                   "FROM comment parent " +
+                   "CROSS JOIN LATERAL (" +
+                   "  SELECT c.id, c.content, c.user_id, c.created_at, c.parent_comment_id, c.reply_count " +
+                   "  FROM comment c WHERE c.parent_comment_id = parent.id " +
+                   "  ORDER BY c.created_at, c.id LIMIT :perParent) r " +
+                   "JOIN users u ON u.id = r.user_id " +
+                   "WHERE parent.id IN (:parentIds) " +
+                   "ORDER BY r.parent_comment_id, r.created_at, r.id",
+           nativeQuery = true)
+    List<Object[]> findFirstRepliesOf(@Param("parentIds") Collection<Long> parentIds, @Param("perParent") int perParent);
+
+    // --- Materialized path (see Comment.path) ---
+
+    /**
+     * A subtree in display order (depth-first, siblings oldest first), limited to maxDepth:
+     * one range scan of idx_comment_post_path over [fromPath, toPath).
+     */
+    @Query("SELECT new com.minutegram.dto.CommentNodeDto(c.id, c.content, c.user.name, c.createdAt, c.parentComment.id, c.replyCount, c.depth, c.path) " +
+           "FROM Comment c " +
+           "WHERE c.post.id = :postId " +
+           "AND c.path >= :fromPath AND c.path < :toPath " +
+           "AND c.depth <= :maxDepth " +
+           "ORDER BY c.path")
+    List<CommentNodeDto> findSubtree(@Param("postId") Long postId,
+                                     @Param("fromPath") String fromPath,
+                                     @Param("toPath") String toPath,
+                                     @Param("maxDepth") int maxDepth,
+                                     Pageable limit);
+
+    /**
+     * Continues findSubtree strictly after the last path of the previous page.
+     */
+    @Query("SELECT new com.minutegram.dto.CommentNodeDto(c.id, c.content, c.user.name, c.createdAt, c.parentComment.id, c.replyCount, c.depth, c.path) " +
+           "FROM Comment c " +
+           "WHERE c.post.id = :postId " +
+           "AND c.path > :afterPath AND c.path < :toPath " +
+           "AND c.depth <= :maxDepth " +
+           "ORDER BY c.path")
+    List<CommentNodeDto> findSubtreeAfter(@Param("postId") Long postId,
+                                          @Param("afterPath") String afterPath,
+                                          @Param("toPath") String toPath,
+                                          @Param("maxDepth") int maxDepth,
+                                          Pageable limit);
+
+    /**
+     * Backfill step for one tree level: gives top-level comments without a path their own segment.
+     * @return The number of comments updated.
+     */
+    @Modifying
+    @Query(value = "UPDATE comment SET path = LPAD(CAST(id AS VARCHAR), 19, '0'), depth = 0 " +
+                   "WHERE path IS NULL AND parent_comment_id IS NULL AND id BETWEEN :fromId AND :toId",
+           nativeQuery = true)
+    int backfillRootPaths(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Backfill step: extends the parent's path for replies whose parent already has one.
+     * Repeating it until it updates nothing fills one more tree level per round.
+     */
+    @Modifying
+    @Query(value = "UPDATE comment c SET path = p.path || LPAD(CAST(c.id AS VARCHAR), 19, '0'), depth = p.depth + 1 " +
+                   "FROM comment p " +
+                   "WHERE c.parent_comment_id = p.id AND c.path IS NULL AND p.path IS NOT NULL " +
+                   "AND c.id BETWEEN :fromId AND :toId",
+           nativeQuery = true)
+    int backfillReplyPaths(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    // --- Denormalized reply counter ---
+
+    @Modifying
+    @Query("UPDATE Comment c SET c.replyCount = c.replyCount + :delta WHERE c.id = :commentId")
+    int adjustReplyCount(@Param("commentId") Long commentId, @Param("delta") int delta);
+
+    /**
+     * Adjusts the reply counter of the parent of the given comment, if it has one.
+     * Must run before the comment itself is deleted.
+     */
+    @Modifying
+    @Query("UPDATE Comment p SET p.replyCount = p.replyCount + :delta " +
+           "WHERE p.id = (SELECT c.parentComment.id FROM Comment c WHERE c.id = :commentId)")
+    int adjustParentReplyCount(@Param("commentId") Long commentId, @Param("delta") int delta);
+
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM Comment c")
+    long findMaxId();
+
+    /**
+     * Locks the comments in [fromId, toId] in id order, so no reply counter change to them can land
+     * between the count and the repair (see PostRepository.lockIdRange).
+     */
+    @Query(value = "SELECT id FROM comment WHERE id BETWEEN :fromId AND :toId ORDER BY id FOR NO KEY UPDATE",
+           nativeQuery = true)
+    List<Long> lockIdRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Repairs reply_count for comments in [fromId, toId] whose counter drifted from their actual replies.
+     * Run after lockIdRange in the same transaction.
+     * @return The number of comments that were corrected.
+     */
+    @Modifying
+    @Query(value = "UPDATE comment c SET reply_count = a.actual " +
+                   "FROM (SELECT c2.id, COALESCE(r.cnt, 0) AS actual FROM comment c2 " +
+                   "      LEFT JOIN (SELECT parent_comment_id, COUNT(*) AS cnt FROM comment " +
+                   "                 WHERE parent_comment_id BETWEEN :fromId AND :toId GROUP BY parent_comment_id) r " +
+                   "             ON r.parent_comment_id = c2.id " +
+                   "      WHERE c2.id BETWEEN :fromId AND :toId) a " +
+                   "WHERE c.id = a.id AND c.reply_count <> a.actual",
+           nativeQuery = true)
+    int reconcileReplyCounts(@Param("fromId") long fromId, @Param("toId") long toId);
 
     // Kept for the admin stats panel
     @Query("SELECT DATE(c.createdAt) as date, COUNT(c) as count FROM Comment c WHERE c.createdAt >= :startDate GROUP BY DATE(c.createdAt)")
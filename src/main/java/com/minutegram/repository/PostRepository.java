@@ -1,10 +1,11 @@
 package com.minutegram.repository;
 
 import com.minutegram.dto.PostResponseDto;
+import com.minutegram.dto.PostSummaryDto;
 import com.minutegram.entity.Post;
-import com.minutegram.entity.Topic;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -12,6 +13,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,45 +21,233 @@ import java.util.Optional;
 public interface PostRepository extends JpaRepository<Post, Long> {
 
     /**
-     * Fetch a single post with aggregated counts directly into a DTO.
+     * Fetch a single post with its like/comment counters directly into a DTO.
      */
     @Query("SELECT new com.minutegram.dto.PostResponseDto(" +
            "p.id, p.content, p.title, p.user.name, p.topic.name, " +
            "p.imageUrl, p.mediaType, p.createdAt, " +
-           "size(p.likedByUsers), size(p.comments)) " +
+           "p.likeCount, p.commentCount) " +
            "FROM Post p WHERE p.id = :postId")
     Optional<PostResponseDto> findProjectedById(@Param("postId") Long postId);
 
+    /**
+     * Counts are read from the denormalized columns, so no join against
+     * post_likes/comment (and no GROUP BY) is needed.
+     * A list view: it returns an excerpt, the detail endpoint serves the full content.
+     */
     @Query(
-        value = "SELECT new com.minutegram.dto.PostResponseDto(" +
-                "p.id, p.content, p.title, p.user.name, p.topic.name, " +
+        value = "SELECT new com.minutegram.dto.PostSummaryDto(" +
+                "p.id, SUBSTRING(p.content, 1, " + PostSummaryDto.EXCERPT_FETCH_LENGTH + "), p.title, p.user.name, p.topic.name, " +
                 "p.imageUrl, p.mediaType, p.createdAt, " +
-                "CAST(COUNT(DISTINCT l) AS int), CAST(COUNT(DISTINCT c) AS int)) " +
-        "FROM Post p " +
-        "LEFT JOIN p.likedByUsers l " +
-        "LEFT JOIN p.comments c " +
-        "GROUP BY p.id, p.content, p.title, p.user.name, p.topic.name, p.imageUrl, p.mediaType, p.createdAt",
+                "p.likeCount, p.commentCount) " +
+        "FROM Post p",
         countQuery = "SELECT COUNT(p) FROM Post p"
     )
-    Page<PostResponseDto> findAllProjectedBy(Pageable pageable);
+    Page<PostSummaryDto> findAllProjectedBy(Pageable pageable);
 
     @Query(
-        value = "SELECT new com.minutegram.dto.PostResponseDto(" +
-                "p.id, p.content, p.title, p.user.name, p.topic.name, " +
+        value = "SELECT new com.minutegram.dto.PostSummaryDto(" +
+                "p.id, SUBSTRING(p.content, 1, " + PostSummaryDto.EXCERPT_FETCH_LENGTH + "), p.title, p.user.name, p.topic.name, " +
                 "p.imageUrl, p.mediaType, p.createdAt, " +
-                "CAST(COUNT(DISTINCT l) AS int), CAST(COUNT(DISTINCT c) AS int)) " +
+                "p.likeCount, p.commentCount) " +
         "FROM Post p " +
-        "LEFT JOIN p.likedByUsers l " +
-        "LEFT JOIN p.comments c " +
-        "WHERE p.topic = :topic " +
-        "GROUP BY p.id, p.content, p.title, p.user.name, p.topic.name, p.imageUrl, p.mediaType, p.createdAt",
-        countQuery = "SELECT COUNT(p) FROM Post p WHERE p.topic = :topic"
+        "WHERE p.topic.id = :topicId",
+        countQuery = "SELECT COUNT(p) FROM Post p WHERE p.topic.id = :topicId"
     )
-    Page<PostResponseDto> findAllProjectedByTopic(@Param("topic") Topic topic, Pageable pageable);
+    Page<PostSummaryDto> findAllProjectedByTopicId(@Param("topicId") Long topicId, Pageable pageable);
+
+    /**
+     * One page of a topic's posts without a count query; the topic page takes its total from
+     * Topic.postCount. Sorts come from TopicService.postSort, each backed by an index on (topic_id, ...).
+     */
+    @Query("SELECT new com.minutegram.dto.PostSummaryDto(" +
+           "p.id, SUBSTRING(p.content, 1, " + PostSummaryDto.EXCERPT_FETCH_LENGTH + "), p.title, p.user.name, p.topic.name, " +
+           "p.imageUrl, p.mediaType, p.createdAt, " +
+           "p.likeCount, p.commentCount) " +
+           "FROM Post p " +
+           "WHERE p.topic.id = :topicId")
+    List<PostSummaryDto> findProjectedByTopicId(@Param("topicId") Long topicId, Pageable pageable);
+
+    /**
+     * Same rows as findAllProjectedBy, without the count query: Spring Data fetches
+     * size + 1 rows and only reports whether another page exists.
+     * Like the other list-view queries below, it returns an excerpt instead of the full content.
+     */
+    @Query("SELECT new com.minutegram.dto.PostSummaryDto(" +
+           "p.id, SUBSTRING(p.content, 1, " + PostSummaryDto.EXCERPT_FETCH_LENGTH + "), p.title, p.user.name, p.topic.name, " +
+           "p.imageUrl, p.mediaType, p.createdAt, " +
+           "p.likeCount, p.commentCount) " +
+           "FROM Post p")
+    Slice<PostSummaryDto> findSliceProjectedBy(Pageable pageable);
+
+    @Query("SELECT new com.minutegram.dto.PostSummaryDto(" +
+           "p.id, SUBSTRING(p.content, 1, " + PostSummaryDto.EXCERPT_FETCH_LENGTH + "), p.title, p.user.name, p.topic.name, " +
+           "p.imageUrl, p.mediaType, p.createdAt, " +
+           "p.likeCount, p.commentCount) " +
+           "FROM Post p " +
+           "WHERE p.topic.id = :topicId")
+    Slice<PostSummaryDto> findSliceProjectedByTopicId(@Param("topicId") Long topicId, Pageable pageable);
+
+    /**
+     * First page of the keyset-paginated feed.
+     * Pass PageRequest.of(0, n) to limit the result; no count query is issued.
+     */
+    @Query("SELECT new com.minutegram.dto.PostSummaryDto(" +
+           "p.id, SUBSTRING(p.content, 1, " + PostSummaryDto.EXCERPT_FETCH_LENGTH + "), p.title, p.user.name, p.topic.name, " +
+           "p.imageUrl, p.mediaType, p.createdAt, " +
+           "p.likeCount, p.commentCount) " +
+           "FROM Post p " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostSummaryDto> findFeedFirstPage(Pageable limit);
+
+    /**
+     * Next page of the feed, strictly after the (createdAt, id) of the last row the client saw.
+     * The redundant "createdAt <= :createdAt" gives Postgres an index range bound,
+     * so page N costs the same as page 1.
+     */
+    @Query("SELECT new com.minutegram.dto.PostSummaryDto(" +
+           "p.id, SUBSTRING(p.content, 1, " + PostSummaryDto.EXCERPT_FETCH_LENGTH + "), p.title, p.user.name, p.topic.name, " +
+           "p.imageUrl, p.mediaType, p.createdAt, " +
+           "p.likeCount, p.commentCount) " +
+           "FROM Post p " +
+           "WHERE p.createdAt <= :createdAt " +
+           "AND (p.createdAt < :createdAt OR p.id < :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostSummaryDto> findFeedAfter(@Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id,
+                                        Pageable limit);
+
+    /**
+     * Feed restricted to a few topics, for topics whose posts are merged into home timelines on read.
+     * Backed by idx_post_topic_created_at_id.
+     */
+    @Query("SELECT new com.minutegram.dto.PostSummaryDto(" +
+           "p.id, SUBSTRING(p.content, 1, " + PostSummaryDto.EXCERPT_FETCH_LENGTH + "), p.title, p.user.name, p.topic.name, " +
+           "p.imageUrl, p.mediaType, p.createdAt, " +
+           "p.likeCount, p.commentCount) " +
+           "FROM Post p " +
+           "WHERE p.topic.id IN :topicIds " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostSummaryDto> findTopicsFeedFirstPage(@Param("topicIds") Collection<Long> topicIds, Pageable limit);
+
+    @Query("SELECT new com.minutegram.dto.PostSummaryDto(" +
+           "p.id, SUBSTRING(p.content, 1, " + PostSummaryDto.EXCERPT_FETCH_LENGTH + "), p.title, p.user.name, p.topic.name, " +
+           "p.imageUrl, p.mediaType, p.createdAt, " +
+           "p.likeCount, p.commentCount) " +
+           "FROM Post p " +
+           "WHERE p.topic.id IN :topicIds " +
+           "AND p.createdAt <= :createdAt " +
+           "AND (p.createdAt < :createdAt OR p.id < :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostSummaryDto> findTopicsFeedAfter(@Param("topicIds") Collection<Long> topicIds,
+                                              @Param("createdAt") LocalDateTime createdAt,
+                                              @Param("id") Long id,
+                                              Pageable limit);
+
+    /**
+     * Fetch a set of posts by id, e.g. a page of the hot ranking. Order is up to the caller.
+     */
+    @Query("SELECT new com.minutegram.dto.PostSummaryDto(" +
+           "p.id, SUBSTRING(p.content, 1, " + PostSummaryDto.EXCERPT_FETCH_LENGTH + "), p.title, p.user.name, p.topic.name, " +
+           "p.imageUrl, p.mediaType, p.createdAt, " +
+           "p.likeCount, p.commentCount) " +
+           "FROM Post p WHERE p.id IN :ids")
+    List<PostSummaryDto> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Inputs for rebuilding the hot ranking: (id, topicId, createdAt, likeCount, commentCount)
+     * of the most recent posts, newest first.
+     */
+    @Query("SELECT p.id, p.topic.id, p.createdAt, p.likeCount, p.commentCount " +
+           "FROM Post p WHERE p.createdAt >= :since " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Object[]> findRankingInputsSince(@Param("since") LocalDateTime since, Pageable limit);
 
     @Query("SELECT DATE(p.createdAt) as date, COUNT(p) as count FROM Post p WHERE p.createdAt >= :startDate GROUP BY DATE(p.createdAt)")
     List<Object[]> countPostsByDate(@Param("startDate") LocalDateTime startDate);
 
+    // --- Denormalized counters ---
+
+    @Modifying
+    @Query("UPDATE Post p SET p.likeCount = p.likeCount + :delta WHERE p.id = :postId")
+    int adjustLikeCount(@Param("postId") Long postId, @Param("delta") int delta);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = p.commentCount + :delta WHERE p.id = :postId")
+    int adjustCommentCount(@Param("postId") Long postId, @Param("delta") int delta);
+
+    // --- Set-based like/unlike (see PostLikeEngine) ---
+
+    /**
+     * Inserts the (post, user) like row and bumps like_count in one statement.
+     * Relies on the composite primary key (post_id, user_id) that Hibernate generates
+     * for the Set-based post_likes join table, so a repeated like is a no-op.
+     * @return 1 if the like was recorded, 0 if it already existed or the post does not exist.
+     */
+    @Modifying
+    @Query(value = "WITH inserted AS (" +
+                   "  INSERT INTO post_likes (post_id, user_id) " +
+                   "  SELECT :postId, :userId WHERE EXISTS (SELECT 1 FROM post WHERE id = :postId) " +
+                   "  ON CONFLICT DO NOTHING " +
+                   "  RETURNING post_id) " +
+                   "UPDATE post SET like_count = like_count + 1 WHERE id IN (SELECT post_id FROM inserted)",
+           nativeQuery = true)
+    int insertLike(@Param("postId") Long postId, @Param("userId") Long userId);
+
+    /**
+     * Deletes the (post, user) like row and decrements like_count in one statement.
+     * @return 1 if a like was removed, 0 if there was nothing to remove.
+     */
+    @Modifying
+    @Query(value = "WITH deleted AS (" +
+                   "  DELETE FROM post_likes WHERE post_id = :postId AND user_id = :userId " +
+                   "  RETURNING post_id) " +
+                   "UPDATE post SET like_count = like_count - 1 WHERE id IN (SELECT post_id FROM deleted)",
+           nativeQuery = true)
+    int deleteLike(@Param("postId") Long postId, @Param("userId") Long userId);
+
+    @Query("SELECT COALESCE(MAX(p.id), 0) FROM Post p")
+    long findMaxId();
+
+    /**
+     * Locks the posts in [fromId, toId] in id order, with the lock a counter UPDATE takes. Once it is
+     * held, every like/comment counter change to those posts has either committed, and is visible to
+     * the next statement's count, or is waiting to apply its delta on top of the repaired value.
+     */
+    @Query(value = "SELECT id FROM post WHERE id BETWEEN :fromId AND :toId ORDER BY id FOR NO KEY UPDATE",
+           nativeQuery = true)
+    List<Long> lockIdRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Repairs like_count for posts in [fromId, toId] whose counter drifted from post_likes.
+     * Run after lockIdRange in the same transaction.
+     * @return The number of posts that were corrected.
+     */
+    @Modifying
+    @Query(value = "UPDATE post p SET like_count = a.actual " +
+                   "FROM (SELECT p2.id, COALESCE(l.cnt, 0) AS actual FROM post p2 " +
+                   "      LEFT JOIN (SELECT post_id, COUNT(*) AS cnt FROM post_likes " +
+                   "                 WHERE post_id BETWEEN :fromId AND :toId GROUP BY post_id) l ON l.post_id = p2.id " +
+                   "      WHERE p2.id BETWEEN :fromId AND :toId) a " +
+                   "WHERE p.id = a.id AND p.like_count <> a.actual",
+           nativeQuery = true)
+    int reconcileLikeCounts(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Repairs comment_count for posts in [fromId, toId] whose counter drifted from the comment table.
+     * Run after lockIdRange in the same transaction.
+     * @return The number of posts that were corrected.
+     */
+    @Modifying
+    @Query(value = "UPDATE post p SET comment_count = a.actual " +
+                   "FROM (SELECT p2.id, COALESCE(c.cnt, 0) AS actual FROM post p2 " +
+                   "      LEFT JOIN (SELECT post_id, COUNT(*) AS cnt FROM comment " +
+                   "                 WHERE post_id BETWEEN :fromId AND :toId GROUP BY post_id) c ON c.post_id = p2.id " +
+                   "      WHERE p2.id BETWEEN :fromId AND :toId) a " +
+                   "WHERE p.id = a.id AND p.comment_count <> a.actual",
+           nativeQuery = true)
+    int reconcileCommentCounts(@Param("fromId") long fromId, @Param("toId") long toId);
+
     @Modifying
     @Query("DELETE FROM Post p WHERE p.user.id = :userId")
     void deleteByUserId(@Param("userId") Long userId);
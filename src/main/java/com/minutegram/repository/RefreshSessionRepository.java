@@ -0,0 +1,61 @@
+package com.minutegram.repository;
+
+import com.minutegram.dto.SessionDto;
+import com.minutegram.entity.RefreshSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshSessionRepository extends JpaRepository<RefreshSession, Long> {
+
+    // The user (and its roles) is needed to mint the new access token.
+    @Query("SELECT s FROM RefreshSession s JOIN FETCH s.user WHERE s.tokenHash = :tokenHash")
+    Optional<RefreshSession> findByTokenHashWithUser(@Param("tokenHash") String tokenHash);
+
+    @Query("SELECT s.id FROM RefreshSession s WHERE s.previousTokenHash = :tokenHash")
+    Optional<Long> findIdByPreviousTokenHash(@Param("tokenHash") String tokenHash);
+
+    // Compare-and-set on the current hash, so two refreshes racing with the same token cannot both win.
+    @Modifying
+    @Query("UPDATE RefreshSession s SET s.previousTokenHash = s.tokenHash, s.tokenHash = :newHash, " +
+           "s.lastUsedAt = :now, s.expiresAt = :expiresAt, " +
+           "s.accessTokenId = :accessTokenId, s.accessTokenExpiresAt = :accessTokenExpiresAt " +
+           "WHERE s.id = :id AND s.tokenHash = :oldHash")
+    int rotate(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash,
+               @Param("now") Instant now, @Param("expiresAt") Instant expiresAt,
+               @Param("accessTokenId") String accessTokenId,
+               @Param("accessTokenExpiresAt") Instant accessTokenExpiresAt);
+
+    @Query("SELECT s FROM RefreshSession s WHERE s.id = :id AND s.user.id = :userId")
+    Optional<RefreshSession> findSessionOfUser(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query("SELECT s FROM RefreshSession s WHERE s.user.id = :userId")
+    List<RefreshSession> findAllOfUser(@Param("userId") Long userId);
+
+    @Query("SELECT new com.minutegram.dto.SessionDto(s.id, s.deviceName, s.createdAt, s.lastUsedAt) " +
+           "FROM RefreshSession s WHERE s.user.id = :userId ORDER BY s.lastUsedAt DESC")
+    List<SessionDto> findSessionsByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshSession s WHERE s.id = :id")
+    int deleteSession(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM RefreshSession s WHERE s.id = :id AND s.user.id = :userId")
+    int deleteSessionOfUser(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshSession s WHERE s.user.id = :userId")
+    int deleteAllOfUser(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshSession s WHERE s.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,122 @@
+package com.minutegram.repository;
+
+import com.minutegram.dto.PostSummaryDto;
+import com.minutegram.entity.TimelineEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TimelineEntryRepository extends JpaRepository<TimelineEntry, Long> {
+
+    /**
+     * Fan-out on write: one INSERT ... SELECT copies the post into every subscriber's timeline.
+     * @return The number of timelines written.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO timeline_entry (user_id, post_id, topic_id, created_at) " +
+                   "SELECT s.user_id, :postId, :topicId, :createdAt FROM topic_subscription s " +
+                   "WHERE s.topic_id = :topicId " +
+                   "AND (SELECT t.subscriber_count FROM topic t WHERE t.id = :topicId) <= :maxSubscribers " +
+                   "ON CONFLICT (user_id, post_id) DO NOTHING",
+           nativeQuery = true)
+    int fanOut(@Param("postId") Long postId,
+               @Param("topicId") Long topicId,
+               @Param("createdAt") LocalDateTime createdAt,
+               @Param("maxSubscribers") int maxSubscribers);
+
+    /**
+     * Seeds a new subscriber's timeline with the topic's most recent posts.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO timeline_entry (user_id, post_id, topic_id, created_at) " +
+                   "SELECT :userId, p.id, p.topic_id, p.created_at FROM post p " +
+                   "WHERE p.topic_id = :topicId " +
+                   "ORDER BY p.created_at DESC, p.id DESC LIMIT :limit " +
+                   "ON CONFLICT (user_id, post_id) DO NOTHING",
+           nativeQuery = true)
+    int backfill(@Param("userId") Long userId, @Param("topicId") Long topicId, @Param("limit") int limit);
+
+    /**
+     * Seeds every subscriber's timeline with the topic's most recent posts, for a topic that
+     * is switching from merge-on-read back to fan-out.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO timeline_entry (user_id, post_id, topic_id, created_at) " +
+                   "SELECT s.user_id, p.id, p.topic_id, p.created_at FROM topic_subscription s " +
+                   "CROSS JOIN (SELECT id, topic_id, created_at FROM post WHERE topic_id = :topicId " +
+                   "            ORDER BY created_at DESC, id DESC LIMIT :limit) p " +
+                   "WHERE s.topic_id = :topicId " +
+                   "ON CONFLICT (user_id, post_id) DO NOTHING",
+           nativeQuery = true)
+    int backfillSubscribers(@Param("topicId") Long topicId, @Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.userId = :userId AND t.topicId = :topicId")
+    void deleteByUserIdAndTopicId(@Param("userId") Long userId, @Param("topicId") Long topicId);
+
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.topicId = :topicId")
+    void deleteByTopicId(@Param("topicId") Long topicId);
+
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.postId = :postId")
+    void deleteByPostId(@Param("postId") Long postId);
+
+    /**
+     * Keeps only the newest maxEntries entries of every user's timeline.
+     * @return The number of entries removed.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM timeline_entry WHERE id IN (" +
+                   "  SELECT r.id FROM (SELECT id, ROW_NUMBER() OVER (" +
+                   "      PARTITION BY user_id ORDER BY created_at DESC, post_id DESC) AS rn " +
+                   "    FROM timeline_entry) r " +
+                   "  WHERE r.rn > :maxEntries)",
+           nativeQuery = true)
+    int trimToNewest(@Param("maxEntries") int maxEntries);
+
+    /**
+     * Removes entries of users and posts that no longer exist; timeline_entry has no foreign keys.
+     * @return The number of entries removed.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM timeline_entry t " +
+                   "WHERE NOT EXISTS (SELECT 1 FROM users u WHERE u.id = t.user_id) " +
+                   "OR NOT EXISTS (SELECT 1 FROM post p WHERE p.id = t.post_id)",
+           nativeQuery = true)
+    int deleteOrphans();
+
+    /**
+     * First page of a user's home timeline. Entries whose post has since been deleted
+     * drop out of the inner join.
+     */
+    @Query("SELECT new com.minutegram.dto.PostSummaryDto(" +
+           "p.id, SUBSTRING(p.content, 1, " + PostSummaryDto.EXCERPT_FETCH_LENGTH + "), p.title, p.user.name, p.topic.name, " +
+           "p.imageUrl, p.mediaType, p.createdAt, " +
+           "p.likeCount, p.commentCount) " +
+           "FROM TimelineEntry t JOIN Post p ON p.id = t.postId " +
+           "WHERE t.userId = :userId " +
+           "ORDER BY t.createdAt DESC, t.postId DESC")
+    List<PostSummaryDto> findHomeFirstPage(@Param("userId") Long userId, Pageable limit);
+
+    @Query("SELECT new com.minutegram.dto.PostSummaryDto(" +
+           "p.id, SUBSTRING(p.content, 1, " + PostSummaryDto.EXCERPT_FETCH_LENGTH + "), p.title, p.user.name, p.topic.name, " +
+           "p.imageUrl, p.mediaType, p.createdAt, " +
+           "p.likeCount, p.commentCount) " +
+           "FROM TimelineEntry t JOIN Post p ON p.id = t.postId " +
+           "WHERE t.userId = :userId " +
+           "AND t.createdAt <= :createdAt " +
+           "AND (t.createdAt < :createdAt OR t.postId < :id) " +
+           "ORDER BY t.createdAt DESC, t.postId DESC")
+    List<PostSummaryDto> findHomeAfter(@Param("userId") Long userId,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id,
+                                        Pageable limit);
+}
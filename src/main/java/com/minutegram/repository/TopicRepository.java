@@ -4,10 +4,15 @@ import com.minutegram.dto.TopicDto;
 import com.minutegram.entity.Topic;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -17,31 +22,103 @@ public interface TopicRepository extends JpaRepository<Topic, Long> {
     boolean existsByName(String name);
     Optional<Topic> findById(Long id);
 
-    /**
-     * Fetch topics with aggregated post counts in one query to avoid N+1 subselects.
-     * The constructor signature is:
-     * (Long id, String name, String description, LocalDateTime createdAt, Long creatorId, String creatorName, int postCount)
-     */
+    @Query("SELECT t.id FROM Topic t WHERE t.name = :name")
+    Optional<Long> findIdByName(@Param("name") String name);
+
+    // Rows are (id, name, postCount); loads and periodically rebuilds TopicDirectory and its typeahead index.
+    @Query("SELECT t.id, t.name, t.postCount FROM Topic t")
+    List<Object[]> findAllIdsNamesAndPostCounts();
+
+    @Query("SELECT t.subscriberCount FROM Topic t WHERE t.id = :id")
+    int findSubscriberCountById(@Param("id") Long id);
+
+    // All listings read the denormalized post_count/last_post_at, so none of them touches the post table.
+    // Sorts passed in the Pageable come from TopicService.topicSort.
+
     @Query(
         value = "SELECT new com.minutegram.dto.TopicDto(" +
-                "t.id, t.name, t.description, t.createdAt, t.creator.id, t.creator.name, CAST(COUNT(p) AS int)) " +
-        "FROM Topic t " +
-        "LEFT JOIN t.posts p " +
-        "GROUP BY t.id, t.name, t.description, t.createdAt, t.creator.id, t.creator.name",
+                "t.id, t.name, t.description, t.createdAt, t.creator.id, t.creator.name, t.postCount, t.lastPostAt) " +
+                "FROM Topic t",
         countQuery = "SELECT COUNT(t) FROM Topic t"
     )
     Page<TopicDto> findAllProjected(Pageable pageable);
 
+    // findAllProjected without the count query.
+    @Query("SELECT new com.minutegram.dto.TopicDto(" +
+           "t.id, t.name, t.description, t.createdAt, t.creator.id, t.creator.name, t.postCount, t.lastPostAt) " +
+           "FROM Topic t")
+    Slice<TopicDto> findSliceProjected(Pageable pageable);
+
     @Query("SELECT new com.minutegram.dto.TopicDto(" +
            "   t.id, t.name, t.description, t.createdAt, " +
-           "   t.creator.id, t.creator.name, size(t.posts)) " +
+           "   t.creator.id, t.creator.name, t.postCount, t.lastPostAt) " +
            "FROM Topic t WHERE t.id = :id")
     Optional<TopicDto> findProjectedById(Long id);
 
     // This was the missing piece for the AdminController search
     @Query("SELECT new com.minutegram.dto.TopicDto(" +
            "   t.id, t.name, t.description, t.createdAt, " +
-           "   t.creator.id, t.creator.name, size(t.posts)) " +
+           "   t.creator.id, t.creator.name, t.postCount, t.lastPostAt) " +
            "FROM Topic t WHERE LOWER(t.name) LIKE LOWER(CONCAT('%', :name, '%'))")
     Page<TopicDto> findProjectedByNameContainingIgnoreCase(String name, Pageable pageable);
+
+    @Query("SELECT new com.minutegram.dto.TopicDto(" +
+           "   t.id, t.name, t.description, t.createdAt, " +
+           "   t.creator.id, t.creator.name, t.postCount, t.lastPostAt) " +
+           "FROM Topic t WHERE LOWER(t.name) LIKE LOWER(CONCAT('%', :name, '%'))")
+    Slice<TopicDto> findSliceProjectedByNameContainingIgnoreCase(@Param("name") String name, Pageable pageable);
+
+    // --- Denormalized post counter ---
+
+    /**
+     * Checks that the topic still exists and keeps it from being deleted until commit. FOR KEY SHARE
+     * is the lock a foreign key check takes, so concurrent posts to the topic do not wait on it.
+     */
+    @Query(value = "SELECT id FROM topic WHERE id = :topicId FOR KEY SHARE", nativeQuery = true)
+    Optional<Long> lockForNewPost(@Param("topicId") Long topicId);
+
+    /**
+     * Counts a new post and moves lastPostAt forward (never back, if posts commit out of order).
+     */
+    @Modifying
+    @Query("UPDATE Topic t SET t.postCount = t.postCount + 1, " +
+           "t.lastPostAt = CASE WHEN t.lastPostAt IS NULL OR t.lastPostAt < :createdAt THEN :createdAt ELSE t.lastPostAt END " +
+           "WHERE t.id = :topicId")
+    int recordPost(@Param("topicId") Long topicId, @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Adjusts the post count of the topic the given post belongs to. Must run before the post is deleted.
+     */
+    @Modifying
+    @Query("UPDATE Topic t SET t.postCount = t.postCount + :delta " +
+           "WHERE t.id = (SELECT p.topic.id FROM Post p WHERE p.id = :postId)")
+    int adjustPostCountOfPost(@Param("postId") Long postId, @Param("delta") int delta);
+
+    @Query("SELECT COALESCE(MAX(t.id), 0) FROM Topic t")
+    long findMaxId();
+
+    /**
+     * Locks the topics in [fromId, toId] in id order (see PostRepository.lockIdRange). It does not
+     * conflict with lockForNewPost, so a post inserted but not yet committed is not counted here and
+     * its recordPost waits for this lock, then counts it on top of the repaired value.
+     */
+    @Query(value = "SELECT id FROM topic WHERE id BETWEEN :fromId AND :toId ORDER BY id FOR NO KEY UPDATE",
+           nativeQuery = true)
+    List<Long> lockIdRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Repairs post_count and last_post_at of topics in [fromId, toId] whose values drifted from their posts.
+     * Run after lockIdRange in the same transaction.
+     * @return The number of topics that were corrected.
+     */
+    @Modifying
+    @Query(value = "UPDATE topic t SET post_count = a.actual_count, last_post_at = a.actual_last " +
+                   "FROM (SELECT t2.id, COUNT(p.id) AS actual_count, COALESCE(MAX(p.created_at), t2.created_at) AS actual_last " +
+                   "      FROM topic t2 LEFT JOIN post p ON p.topic_id = t2.id " +
+                   "      WHERE t2.id BETWEEN :fromId AND :toId " +
+                   "      GROUP BY t2.id, t2.created_at) a " +
+                   "WHERE a.id = t.id " +
+                   "AND (t.post_count <> a.actual_count OR t.last_post_at IS DISTINCT FROM a.actual_last)",
+           nativeQuery = true)
+    int reconcilePostCounts(@Param("fromId") long fromId, @Param("toId") long toId);
 }
\ No newline at end of file
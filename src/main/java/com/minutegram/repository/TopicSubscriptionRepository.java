@@ -0,0 +1,54 @@
+package com.minutegram.repository;
+
+import com.minutegram.entity.TopicSubscription;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TopicSubscriptionRepository extends JpaRepository<TopicSubscription, Long> {
+
+    /**
+     * Inserts the (user, topic) subscription and bumps topic.subscriber_count in one statement.
+     * @return 1 if the subscription was created, 0 if it already existed or the topic does not exist.
+     */
+    @Modifying
+    @Query(value = "WITH inserted AS (" +
+                   "  INSERT INTO topic_subscription (user_id, topic_id, created_at) " +
+                   "  SELECT :userId, :topicId, LOCALTIMESTAMP WHERE EXISTS (SELECT 1 FROM topic WHERE id = :topicId) " +
+                   "  ON CONFLICT (user_id, topic_id) DO NOTHING " +
+                   "  RETURNING topic_id) " +
+                   "UPDATE topic SET subscriber_count = subscriber_count + 1 WHERE id IN (SELECT topic_id FROM inserted)",
+           nativeQuery = true)
+    int insertSubscription(@Param("userId") Long userId, @Param("topicId") Long topicId);
+
+    /**
+     * Deletes the (user, topic) subscription and decrements topic.subscriber_count in one statement.
+     * @return 1 if a subscription was removed, 0 if there was none.
+     */
+    @Modifying
+    @Query(value = "WITH deleted AS (" +
+                   "  DELETE FROM topic_subscription WHERE user_id = :userId AND topic_id = :topicId " +
+                   "  RETURNING topic_id) " +
+                   "UPDATE topic SET subscriber_count = subscriber_count - 1 WHERE id IN (SELECT topic_id FROM deleted)",
+           nativeQuery = true)
+    int deleteSubscription(@Param("userId") Long userId, @Param("topicId") Long topicId);
+
+    @Query("SELECT s.topic.id FROM TopicSubscription s WHERE s.user.id = :userId ORDER BY s.topic.id")
+    List<Long> findTopicIdsByUserId(@Param("userId") Long userId);
+
+    /**
+     * The user's subscribed topics that are too large to fan out on write; their posts are merged in on read.
+     */
+    @Query("SELECT s.topic.id FROM TopicSubscription s " +
+           "WHERE s.user.id = :userId AND s.topic.subscriberCount > :maxFanOut")
+    List<Long> findMergeOnReadTopicIds(@Param("userId") Long userId, @Param("maxFanOut") int maxFanOut);
+
+    @Modifying
+    @Query("DELETE FROM TopicSubscription s WHERE s.topic.id = :topicId")
+    void deleteByTopicId(@Param("topicId") Long topicId);
+}
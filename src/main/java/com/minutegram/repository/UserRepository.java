@@ -2,7 +2,10 @@ package com.minutegram.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import com.minutegram.entity.User;
 import org.springframework.stereotype.Repository;
 
@@ -13,10 +16,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
 
+    // Only the id; avoids loading the user and its EAGER roles.
+    @Query("SELECT u.id FROM User u WHERE u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
     Optional<User> findByUsername(String username);
 
     Page<User> findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(String name, String email, Pageable pageable);
 
+    // Same search without the count query, for countMode=none.
+    Slice<User> findSliceByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(String name, String email, Pageable pageable);
+
     long countByBannedFalse();
 
     long countByBannedTrue();
@@ -28,6 +28,24 @@ public class AdminService {
     @Autowired
     private TopicRepository topicRepository;
 
+    @Autowired
+    private PostDetailCache postDetailCache;
+
+    @Autowired
+    private HotRankingEngine hotRankingEngine;
+
+    @Autowired
+    private CommentTreeCache commentTreeCache;
+
+    @Autowired
+    private TopicDirectory topicDirectory;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
     @Transactional
     public User banUser(Long userId) {
         User user = userRepository.findById(userId)
@@ -39,6 +57,8 @@ public class AdminService {
         }
 
         user.setBanned(true);
+        // No new access tokens, and the current ones are revoked.
+        refreshTokenService.revokeAllSessions(userId);
         return userRepository.save(user);
     }
 
@@ -70,12 +90,15 @@ public class AdminService {
 
     @Transactional
     public void deleteComment(Long commentId) {
-        if (!commentRepository.existsById(commentId)) {
-            throw new RuntimeException("Comment not found");
-        }
-
+        Long postId = commentRepository.findPostIdById(commentId)
+                .orElseThrow(() -> new RuntimeException("Comment not found"));
 
+        commentRepository.adjustParentReplyCount(commentId, -1);
         commentRepository.deleteById(commentId);
+        postRepository.adjustCommentCount(postId, -1);
+        postDetailCache.evict(postId);
+        commentTreeCache.onCommentDeleted(postId, commentId);
+        hotRankingEngine.onCommentsChanged(postId, -1);
     }
 
     @Transactional
@@ -85,7 +108,12 @@ public class AdminService {
         }
 
 
+        topicRepository.adjustPostCountOfPost(postId, -1);
         postRepository.deleteById(postId);
+        timelineService.onPostDeleted(postId);
+        postDetailCache.evict(postId);
+        commentTreeCache.evict(postId);
+        hotRankingEngine.onPostDeleted(postId);
     }
 
     @Transactional
@@ -95,6 +123,12 @@ public class AdminService {
         }
 
 
+        timelineService.onTopicDeleted(topicId);
+        topicDirectory.onTopicDeleted(topicId);
         topicRepository.deleteById(topicId);
+        // Deleting a topic cascades to all of its posts.
+        postDetailCache.evictAll();
+        commentTreeCache.evictAll();
+        hotRankingEngine.onTopicDeleted(topicId);
     }
 }
\ No newline at end of file
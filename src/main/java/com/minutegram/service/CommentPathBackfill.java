@@ -0,0 +1,67 @@
+package com.minutegram.service;
+
+import com.minutegram.repository.CommentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Fills in Comment.path and Comment.depth for comments written before those columns existed.
+ * Runs once at startup, in id ranges with one short transaction per range, like PostCounterReconciler.
+ * Top-level comments come first; then replies are walked repeatedly until a full pass finds
+ * nothing to update. A reply always has a larger id than its parent, so a single pass usually
+ * covers several levels: the parent's range commits before the reply's range is processed.
+ */
+@Service
+public class CommentPathBackfill {
+
+    private final CommentRepository commentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public CommentPathBackfill(CommentRepository commentRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${minutegram.comments.path-backfill.enabled:true}") boolean enabled,
+                               @Value("${minutegram.counters.reconcile-batch-size:5000}") int batchSize) {
+        this.commentRepository = commentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        int updated = backfill();
+        if (updated > 0) {
+            System.out.println("Backfilled comment paths: " + updated);
+        }
+    }
+
+    public int backfill() {
+        long maxId = commentRepository.findMaxId();
+        int updated = 0;
+        for (long start = 1; start <= maxId; start += batchSize) {
+            final long fromId = start;
+            final long toId = start + batchSize - 1;
+            updated += transactionTemplate.execute(status -> commentRepository.backfillRootPaths(fromId, toId));
+        }
+
+        int updatedInPass;
+        do {
+            updatedInPass = 0;
+            for (long start = 1; start <= maxId; start += batchSize) {
+                final long fromId = start;
+                final long toId = start + batchSize - 1;
+                updatedInPass += transactionTemplate.execute(status -> commentRepository.backfillReplyPaths(fromId, toId));
+            }
+            updated += updatedInPass;
+        } while (updatedInPass > 0);
+        return updated;
+    }
+}
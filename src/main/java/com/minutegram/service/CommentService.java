@@ -2,26 +2,47 @@ package com.minutegram.service;
 
 
 import com.minutegram.dto.CommentCreateDto;
+import com.minutegram.dto.CommentNodeDto;
 import com.minutegram.dto.CommentResponseDto;
+import com.minutegram.dto.CommentTargetDto;
+import com.minutegram.dto.CountMode;
+import com.minutegram.dto.CursorPage;
+import com.minutegram.dto.FeedCursor;
 import com.minutegram.entity.Comment;
-import com.minutegram.entity.Post;
-import com.minutegram.entity.User;
+import com.minutegram.exception.InvalidInputException;
 import com.minutegram.repository.CommentRepository;
 import com.minutegram.repository.PostRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional // Use Spring's Transactional annotation
 public class CommentService {
+    private static final int MAX_THREAD_PAGE_SIZE = 50;
+    private static final int MAX_INLINE_REPLIES = 10;
+    private static final int MAX_SUBTREE_PAGE_SIZE = 200;
+    private static final int MAX_BATCH_PARENTS = 100;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
     @Autowired
     private CommentRepository commentRepository;
 
@@ -31,36 +52,88 @@ public class CommentService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private PostDetailCache postDetailCache;
+
+    @Autowired
+    private HotRankingEngine hotRankingEngine;
+
+    @Autowired
+    private CommentTreeCache commentTreeCache;
+
+    @Autowired
+    private RowCountEstimator rowCountEstimator;
+
+    /**
+     * Post and parent are checked by one query (findCommentTarget) and then attached as references,
+     * so neither entity is loaded; the response is built from that query and the current user.
+     */
     public CommentResponseDto createComment(CommentCreateDto commentDto){
-        User currentUser = userService.getCurrentUser();
+        Long parentId = commentDto.getParentCommentId();
 
-        Post post = postRepository.findById(commentDto.getPostId())
+        CommentTargetDto target = commentRepository.findCommentTarget(commentDto.getPostId(), parentId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
+        if (parentId != null && target.getParentId() == null) {
+            throw new RuntimeException("Parent comment not found");
+        }
+        if (parentId != null && target.getParentDepth() >= Comment.MAX_DEPTH) {
+            throw new RuntimeException("Reply thread is too deep");
+        }
+        Long postId = target.getPostId();
 
         Comment comment = new Comment();
         comment.setContent(commentDto.getContent());
-        comment.setUser(currentUser);
-        comment.setPost(post);
-
-        if (commentDto.getParentCommentId() != null) {
-            Comment parentComment = commentRepository.findById(commentDto.getParentCommentId())
-                    .orElseThrow(() -> new RuntimeException("Parent comment not found"));
-            comment.setParentComment(parentComment);
+        // Attached by id from the token; the user row is not read.
+        comment.setUser(userService.getCurrentUserReference());
+        comment.setPost(postRepository.getReferenceById(postId));
+        if (parentId != null) {
+            comment.setParentComment(commentRepository.getReferenceById(parentId));
         }
 
         Comment savedComment = commentRepository.save(comment);
-        // Using fromEntity here is fine because it's a single object, not a list.
-        return CommentResponseDto.fromEntity(savedComment);
+        assignPath(savedComment, target);
+        if (parentId != null) {
+            commentRepository.adjustReplyCount(parentId, 1);
+        }
+        postRepository.adjustCommentCount(postId, 1);
+        postDetailCache.evict(postId);
+        hotRankingEngine.onCommentsChanged(postId, 1);
+        CommentResponseDto created = new CommentResponseDto(savedComment.getId(), savedComment.getContent(),
+                userService.getCurrentUserName(), savedComment.getCreatedAt(), parentId, target.getPostTitle());
+        commentTreeCache.onCommentCreated(postId, created);
+        return created;
+    }
+
+    // The path ends with the comment's own id, so it can only be set once the insert has generated it.
+    private void assignPath(Comment comment, CommentTargetDto target) {
+        String segment = Comment.pathSegment(comment.getId());
+        if (target.getParentId() == null) {
+            comment.setPath(segment);
+            comment.setDepth(0);
+        } else if (target.getParentPath() != null) {
+            comment.setPath(target.getParentPath() + segment);
+            comment.setDepth(target.getParentDepth() + 1);
+        }
+        // Otherwise the parent predates paths and has not been backfilled yet;
+        // CommentPathBackfill fills in both on its next run.
     }
 
     /**
-     * REWRITTEN FOR PERFORMANCE.
-     * Fetches all comments for a post in a single query and then assembles the reply hierarchy in memory.
+     * Served from CommentTreeCache, which keeps the assembled tree up to date as comments are
+     * added and deleted. Runs outside a transaction so cache hits do not hold a pooled connection.
      * @param postId The ID of the post.
-     * @return A list of top-level comment DTOs, with nested replies.
+     * @return A list of top-level comment DTOs, with nested replies. Shared between requests: do not modify.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<CommentResponseDto> getPostComments(Long postId) {
+        return commentTreeCache.get(postId, () -> loadCommentTree(postId));
+    }
+
+    /**
+     * REWRITTEN FOR PERFORMANCE.
+     * Fetches all comments for a post in a single query and then assembles the reply hierarchy in memory.
+     */
+    private List<CommentResponseDto> loadCommentTree(Long postId) {
         // Step 1: Fetch ALL comment DTOs for the post in ONE efficient query.
         List<CommentResponseDto> allCommentDtos = commentRepository.findDtosByPostId(postId);
 
@@ -84,9 +157,11 @@ public class CommentService {
             }
         }
         
-        // Sort replies by creation date if needed (optional, adds minor overhead)
-        for (CommentResponseDto parent : topLevelComments) {
-            parent.getReplies().sort((r1, r2) -> r1.getCreatedAt().compareTo(r2.getCreatedAt()));
+        // Sort replies by creation date at every level, not just below top-level comments.
+        for (CommentResponseDto parent : allCommentDtos) {
+            if (parent.getReplies().size() > 1) {
+                parent.getReplies().sort((r1, r2) -> r1.getCreatedAt().compareTo(r2.getCreatedAt()));
+            }
         }
         
         // Sort top-level comments by creation date (descending)
@@ -97,25 +172,281 @@ public class CommentService {
 
 
     /**
-     * This method is now less efficient than getPostComments but can be kept for specific cases
-     * where you only need the direct replies to a single known comment.
+     * One page of a post's top-level comments (newest first), each with its first inlineReplies
+     * direct replies (oldest first). A request reads at most size + 1 top-level rows and
+     * size * inlineReplies reply rows, however large the thread is.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CommentNodeDto> getThread(Long postId, String cursor, int size, int inlineReplies) {
+        int pageSize = Math.max(1, Math.min(size, MAX_THREAD_PAGE_SIZE));
+        int repliesPerComment = Math.max(0, Math.min(inlineReplies, MAX_INLINE_REPLIES));
+        FeedCursor after = FeedCursor.decode(cursor);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<CommentNodeDto> rows = after == null
+                ? commentRepository.findThreadFirstPage(postId, limit)
+                : commentRepository.findThreadAfter(postId, after.getCreatedAt(), after.getId(), limit);
+
+        boolean hasNext = rows.size() > pageSize;
+        List<CommentNodeDto> items = hasNext ? rows.subList(0, pageSize) : rows;
+        if (repliesPerComment > 0) {
+            inlineFirstReplies(items, repliesPerComment);
+        }
+        String nextCursor = null;
+        if (hasNext) {
+            CommentNodeDto last = items.get(items.size() - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(items, nextCursor, hasNext);
+    }
+
+    /**
+     * Continues the reply list of one comment, oldest first. The cursor comes from
+     * CommentNodeDto.repliesCursor or from the previous page.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CommentNodeDto> getRepliesPage(Long parentCommentId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_THREAD_PAGE_SIZE));
+        FeedCursor after = FeedCursor.decode(cursor);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<CommentNodeDto> rows = after == null
+                ? commentRepository.findRepliesFirstPage(parentCommentId, limit)
+                : commentRepository.findRepliesAfter(parentCommentId, after.getCreatedAt(), after.getId(), limit);
+
+        boolean hasNext = rows.size() > pageSize;
+        List<CommentNodeDto> items = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            CommentNodeDto last = items.get(items.size() - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(items, nextCursor, hasNext);
+    }
+
+    /**
+     * The subtree below a comment, in display order (depth-first, replies oldest first), down to
+     * `levels` levels below it. Reads one range of idx_comment_post_path, at most size + 1 rows.
+     * The items are the page's roots with their descendants nested; a continuation page starts
+     * mid-tree, and its roots then attach to parents already returned (via parentCommentId).
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CommentNodeDto> getSubtree(Long commentId, String cursor, int levels, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_SUBTREE_PAGE_SIZE));
+        Comment root = commentRepository.findById(commentId)
+                .orElseThrow(() -> new RuntimeException("Comment not found"));
+        if (root.getPath() == null) {
+            throw new RuntimeException("Comment tree is not indexed yet");
+        }
+        Long postId = root.getPost().getId();
+        int maxDepth = root.getDepth() + Math.max(0, Math.min(levels, Comment.MAX_DEPTH));
+        String toPath = Comment.subtreeUpperBound(root.getPath());
+        String afterPath = decodePathCursor(cursor);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<CommentNodeDto> rows = afterPath == null
+                ? commentRepository.findSubtree(postId, root.getPath(), toPath, maxDepth, limit)
+                : commentRepository.findSubtreeAfter(postId, afterPath, toPath, maxDepth, limit);
+
+        boolean hasNext = rows.size() > pageSize;
+        List<CommentNodeDto> items = hasNext ? rows.subList(0, pageSize) : rows;
+
+        // Path order guarantees a parent comes before its replies.
+        Map<Long, CommentNodeDto> byId = new HashMap<>();
+        List<CommentNodeDto> roots = new ArrayList<>();
+        for (CommentNodeDto node : items) {
+            CommentNodeDto parent = node.getParentCommentId() == null ? null : byId.get(node.getParentCommentId());
+            if (parent != null) {
+                parent.getReplies().add(node);
+            } else {
+                roots.add(node);
+            }
+            byId.put(node.getId(), node);
+        }
+        String nextCursor = hasNext ? encodePathCursor(items.get(items.size() - 1).getPath()) : null;
+        return new CursorPage<>(roots, nextCursor, hasNext);
+    }
+
+    private static String encodePathCursor(String path) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(path.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodePathCursor(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String path = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (path.isEmpty() || path.length() % Comment.PATH_SEGMENT_LENGTH != 0 || !path.chars().allMatch(Character::isDigit)) {
+                throw new InvalidInputException("invalid cursor");
+            }
+            return path;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException("invalid cursor");
+        }
+    }
+
+    // One query for the first replies of every comment on the page; only comments that have replies are asked for.
+    private void inlineFirstReplies(List<CommentNodeDto> parents, int perParent) {
+        Map<Long, CommentNodeDto> byId = new HashMap<>();
+        for (CommentNodeDto parent : parents) {
+            if (parent.getReplyCount() > 0) {
+                byId.put(parent.getId(), parent);
+            }
+        }
+        if (byId.isEmpty()) {
+            return;
+        }
+
+        for (Object[] row : commentRepository.findFirstRepliesOf(byId.keySet(), perParent)) {
+            CommentNodeDto reply = toReplyNode(row);
+            CommentNodeDto parent = byId.get(reply.getParentCommentId());
+            if (parent != null) {
+                parent.getReplies().add(reply);
+            }
+        }
+
+        for (CommentNodeDto parent : byId.values()) {
+            List<CommentNodeDto> replies = parent.getReplies();
+            if (!replies.isEmpty() && parent.getReplyCount() > replies.size()) {
+                CommentNodeDto last = replies.get(replies.size() - 1);
+                parent.setRepliesCursor(new FeedCursor(last.getCreatedAt(), last.getId()).encode());
+            }
+        }
+    }
+
+    /**
+     * The first replies of many comments at once, e.g. every thread the client has expanded,
+     * grouped by parent id in request order. One query for all groups; each group holds at most
+     * perParent replies (oldest first) and its nextCursor continues via getRepliesPage.
+     * Ids without replies, or of unknown comments, get an empty group.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, CursorPage<CommentNodeDto>> getRepliesBatch(List<Long> parentIds, int perParent) {
+        Set<Long> ids = new LinkedHashSet<>(parentIds);
+        if (ids.isEmpty() || ids.size() > MAX_BATCH_PARENTS) {
+            throw new InvalidInputException("Between 1 and " + MAX_BATCH_PARENTS + " parent comment ids are required");
+        }
+        int groupSize = Math.max(1, Math.min(perParent, MAX_THREAD_PAGE_SIZE));
+
+        Map<Long, List<CommentNodeDto>> grouped = new HashMap<>();
+        // One extra row per parent tells whether the group continues.
+        for (Object[] row : commentRepository.findFirstRepliesOf(ids, groupSize + 1)) {
+            CommentNodeDto reply = toReplyNode(row);
+            grouped.computeIfAbsent(reply.getParentCommentId(), id -> new ArrayList<>()).add(reply);
+        }
+
+        Map<Long, CursorPage<CommentNodeDto>> result = new LinkedHashMap<>();
+        for (Long id : ids) {
+            List<CommentNodeDto> rows = grouped.getOrDefault(id, List.of());
+            boolean hasNext = rows.size() > groupSize;
+            List<CommentNodeDto> items = hasNext ? rows.subList(0, groupSize) : rows;
+            String nextCursor = null;
+            if (hasNext) {
+                CommentNodeDto last = items.get(items.size() - 1);
+                nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+            }
+            result.put(id, new CursorPage<>(items, nextCursor, hasNext));
+        }
+        return result;
+    }
+
+    // Maps a findFirstRepliesOf row.
+    private static CommentNodeDto toReplyNode(Object[] row) {
+        return new CommentNodeDto(
+                ((Number) row[0]).longValue(),
+                (String) row[1],
+                (String) row[2],
+                toLocalDateTime(row[3]),
+                ((Number) row[4]).longValue(),
+                ((Number) row[5]).intValue());
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    /**
+     * The direct replies to a single known comment, from one projection query.
+     * To expand several threads at once use getRepliesBatch.
      */
     @Transactional(readOnly = true)
     public List<CommentResponseDto> getCommentReplies(Long parentCommentId) {
-        return commentRepository.findByParentCommentIdOrderByCreatedAt(parentCommentId)
-                .stream()
-                .map(CommentResponseDto::fromEntity) // BEWARE: This causes N+1 on the author name for each reply.
-                .collect(Collectors.toList());
+        return commentRepository.findDtosByParentCommentId(parentCommentId);
+    }
+
+    /**
+     * Offset-paged listing for the moderation panel, newest first, optionally filtered by content.
+     */
+    @Transactional(readOnly = true)
+    public Page<CommentResponseDto> getAllComments(String search, Pageable pageable) {
+        return search.isEmpty()
+                ? commentRepository.findDtoPage(pageable)
+                : commentRepository.searchDtoPage(containsPattern(search), pageable);
+    }
+
+    /**
+     * The admin panel listing in the requested count mode (see RowCountEstimator).
+     */
+    @Transactional(readOnly = true)
+    public Page<CommentResponseDto> getAllComments(String search, Pageable pageable, CountMode countMode) {
+        if (search.isEmpty()) {
+            return rowCountEstimator.page(countMode, pageable, "comment", false,
+                    () -> commentRepository.findDtoPage(pageable),
+                    () -> commentRepository.findDtoSlice(pageable));
+        }
+        String pattern = containsPattern(search);
+        return rowCountEstimator.page(countMode, pageable, "comment", true,
+                () -> commentRepository.searchDtoPage(pattern, pageable),
+                () -> commentRepository.searchDtoSlice(pattern, pageable));
+    }
+
+    /**
+     * The admin panel listing without a total, fetching size + 1 rows to decide hasNext.
+     */
+    @Transactional(readOnly = true)
+    public Slice<CommentResponseDto> getAllCommentsSlice(String search, Pageable pageable) {
+        return search.isEmpty()
+                ? commentRepository.findDtoSlice(pageable)
+                : commentRepository.searchDtoSlice(containsPattern(search), pageable);
     }
 
     /**
-     * Used for the admin panel. This is still slow due to fromEntity.
-     * It should also be converted to a projection if the admin panel comment view is slow.
+     * Keyset-paged comment search for the admin and moderation panels, newest first.
+     * Cost per page does not grow with the page number, and no COUNT is run.
      */
     @Transactional(readOnly = true)
-    public Page<CommentResponseDto> getAllComments(Pageable pageable) {
-        // TODO: Create a projection for this in CommentRepository to improve admin panel performance.
-        return commentRepository.findAll(pageable).map(CommentResponseDto::fromEntity);
+    public CursorPage<CommentResponseDto> searchComments(String search, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+        FeedCursor after = FeedCursor.decode(cursor);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        String pattern = search == null || search.isEmpty() ? null : containsPattern(search);
+
+        List<CommentResponseDto> rows;
+        if (pattern == null) {
+            rows = after == null
+                    ? commentRepository.findDtosFirstPage(limit)
+                    : commentRepository.findDtosAfter(after.getCreatedAt(), after.getId(), limit);
+        } else {
+            rows = after == null
+                    ? commentRepository.searchDtosFirstPage(pattern, limit)
+                    : commentRepository.searchDtosAfter(pattern, after.getCreatedAt(), after.getId(), limit);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<CommentResponseDto> items = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            CommentResponseDto last = items.get(items.size() - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(items, nextCursor, hasNext);
+    }
+
+    // ILIKE pattern matching the term anywhere; the term's own wildcards are matched literally.
+    static String containsPattern(String term) {
+        String escaped = term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
     }
 
 }
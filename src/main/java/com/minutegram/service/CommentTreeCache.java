@@ -0,0 +1,415 @@
+package com.minutegram.service;
+
+import com.minutegram.cache.CacheRegistry;
+import com.minutegram.cache.CommentTreeCacheStats;
+import com.minutegram.cache.SingleFlight;
+import com.minutegram.dto.CommentResponseDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Assembled comment trees of active posts, as returned by CommentService.getPostComments.
+ *
+ * Unlike PostDetailCache, writes do not evict: once the writing transaction commits, a new comment
+ * is inserted into the cached tree at its sorted position and a deleted comment is pruned together
+ * with its replies. Trees are immutable snapshots in a ConcurrentHashMap, so a read, hit or miss,
+ * takes no lock. An update builds a new snapshot inside compute(), which serializes writers of the
+ * same post only; it copies the lists on the path from the top level down to the changed node and
+ * the tree's parent index.
+ *
+ * Bounded by the number of trees and by their estimated total size; the least recently read tree
+ * is dropped first. In-place updates only see writes made on this instance, so a tree is also
+ * reloaded once it is ttlSeconds old; that bounds how long comments written through another
+ * instance stay invisible here.
+ *
+ * A load that overlapped a write to the same post is not stored, as in BoundedCache: writes record
+ * a per-post stamp, so writes to other posts do not cost a concurrent load its result. The stamp is
+ * checked and the tree stored in the same compute() a write would update it in.
+ */
+@Service
+public class CommentTreeCache {
+
+    private static final Comparator<CommentResponseDto> OLDEST_FIRST = Comparator.comparing(CommentResponseDto::getCreatedAt);
+    private static final Comparator<CommentResponseDto> NEWEST_FIRST = OLDEST_FIRST.reversed();
+
+    // Rough fixed cost of one cached comment: the DTO, its replies list, its parent index entry
+    // and the string headers. Characters are counted on top, at two bytes each.
+    private static final long NODE_OVERHEAD_BYTES = 160;
+
+    private static final class Tree {
+        final Long postId;
+        // Clock value when the tree was loaded, and its age, carried over to updated snapshots.
+        final long loadStamp;
+        final long loadedAtNanos;
+        // Top-level comments newest first, replies oldest first, like getPostComments.
+        final List<CommentResponseDto> roots;
+        // Comment id -> parent id (null for top-level comments), for every comment in the tree.
+        // Not modified once the tree is published.
+        final Map<Long, Long> parentIds;
+        final long estimatedBytes;
+        // Only a hint for picking the least recently read tree, so a plain volatile write per hit.
+        volatile long lastReadNanos;
+
+        Tree(Long postId, long loadStamp, long loadedAtNanos, List<CommentResponseDto> roots,
+             Map<Long, Long> parentIds, long estimatedBytes, long lastReadNanos) {
+            this.postId = postId;
+            this.loadStamp = loadStamp;
+            this.loadedAtNanos = loadedAtNanos;
+            this.roots = roots;
+            this.parentIds = parentIds;
+            this.estimatedBytes = estimatedBytes;
+            this.lastReadNanos = lastReadNanos;
+        }
+    }
+
+    private final ConcurrentHashMap<Long, Tree> trees = new ConcurrentHashMap<>();
+    private final SingleFlight<Long, List<CommentResponseDto>> singleFlight;
+    private final boolean enabled;
+    private final int maxTrees;
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    // Post id -> clock value of its latest write, oldest first; at most maxTrees posts are remembered.
+    // Guarded by its own monitor, which only writes and loads take, never a cache hit.
+    private final LinkedHashMap<Long, Long> modifiedAt = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            if (size() > maxTrees) {
+                modifiedBefore = Math.max(modifiedBefore, eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+    // Loads stamped below this are not stored: a forgotten per-post stamp. Guarded by modifiedAt.
+    private long modifiedBefore;
+    // Trees loaded below this are neither stored nor served: evictAll().
+    private volatile long evictedAllAt;
+    private final AtomicLong clock = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder inserts = new LongAdder();
+    private final LongAdder prunes = new LongAdder();
+
+    public CommentTreeCache(CacheRegistry cacheRegistry,
+                            @Value("${minutegram.cache.comment-tree.enabled:true}") boolean enabled,
+                            @Value("${minutegram.cache.comment-tree.max-trees:500}") int maxTrees,
+                            @Value("${minutegram.cache.comment-tree.max-bytes:67108864}") long maxBytes,
+                            @Value("${minutegram.cache.comment-tree.ttl-seconds:60}") long ttlSeconds) {
+        this.singleFlight = cacheRegistry.register(new SingleFlight<>("comment-tree"));
+        this.enabled = enabled;
+        this.maxTrees = maxTrees;
+        this.maxBytes = maxBytes;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    /**
+     * @param loader assembles the tree from the database; its result is copied, not kept
+     * @return The post's top-level comments with nested replies. Shared between requests: do not modify.
+     */
+    public List<CommentResponseDto> get(Long postId, Supplier<List<CommentResponseDto>> loader) {
+        if (!enabled) {
+            return singleFlight.load(postId, loader);
+        }
+        Tree tree = trees.get(postId);
+        if (tree != null) {
+            long now = System.nanoTime();
+            if (now - tree.loadedAtNanos < ttlNanos && tree.loadStamp >= evictedAllAt) {
+                tree.lastReadNanos = now;
+                hits.increment();
+                return tree.roots;
+            }
+            discard(tree);
+        }
+        misses.increment();
+        return singleFlight.load(postId, () -> {
+            long stamp = clock.get();
+            Tree fresh = freeze(postId, stamp, loader.get());
+            trees.compute(postId, (id, current) -> {
+                if (!isCurrent(postId, stamp)) {
+                    return current;
+                }
+                totalBytes.addAndGet(fresh.estimatedBytes - (current == null ? 0 : current.estimatedBytes));
+                return fresh;
+            });
+            trimToBounds();
+            return fresh.roots;
+        });
+    }
+
+    /**
+     * Inserts the comment into the post's cached tree once the current transaction commits.
+     */
+    public void onCommentCreated(Long postId, CommentResponseDto comment) {
+        CommentResponseDto node = copyOf(comment, List.of());
+        afterCommit(() -> insert(postId, node));
+    }
+
+    /**
+     * Removes the comment and its replies from the post's cached tree once the current transaction commits.
+     */
+    public void onCommentDeleted(Long postId, Long commentId) {
+        afterCommit(() -> prune(postId, commentId));
+    }
+
+    public void evict(Long postId) {
+        afterCommit(() -> trees.compute(postId, (id, tree) -> {
+            markModified(postId);
+            if (tree != null) {
+                totalBytes.addAndGet(-tree.estimatedBytes);
+            }
+            return null;
+        }));
+    }
+
+    public void evictAll() {
+        afterCommit(() -> {
+            synchronized (modifiedAt) {
+                evictedAllAt = clock.incrementAndGet();
+                modifiedAt.clear();
+            }
+            // A tree stored concurrently is loaded below evictedAllAt, so it is never served.
+            for (Tree tree : trees.values()) {
+                if (trees.remove(tree.postId, tree)) {
+                    totalBytes.addAndGet(-tree.estimatedBytes);
+                }
+            }
+        });
+    }
+
+    public CommentTreeCacheStats stats() {
+        List<CommentTreeCacheStats.TreeSize> sizes = new ArrayList<>();
+        long bytes = 0;
+        for (Tree tree : trees.values()) {
+            sizes.add(new CommentTreeCacheStats.TreeSize(tree.postId, tree.parentIds.size(), tree.estimatedBytes));
+            bytes += tree.estimatedBytes;
+        }
+        sizes.sort(Comparator.comparingLong(CommentTreeCacheStats.TreeSize::getEstimatedBytes).reversed());
+        return new CommentTreeCacheStats(sizes.size(), maxTrees, bytes, maxBytes,
+                hits.sum(), misses.sum(), evictions.sum(), inserts.sum(), prunes.sum(), sizes);
+    }
+
+    // --- Updates ---
+
+    private void insert(Long postId, CommentResponseDto node) {
+        trees.compute(postId, (id, tree) -> {
+            markModified(postId);
+            if (tree == null || tree.parentIds.containsKey(node.getId())) {
+                return tree;
+            }
+            Long parentId = node.getParentCommentId();
+            if (parentId != null && !tree.parentIds.containsKey(parentId)) {
+                // The parent is not in this snapshot (e.g. it was pruned meanwhile); reload on the next read.
+                totalBytes.addAndGet(-tree.estimatedBytes);
+                evictions.increment();
+                return null;
+            }
+            Map<Long, Long> parentIds = new HashMap<>(tree.parentIds);
+            parentIds.put(node.getId(), parentId);
+            long bytes = estimateBytes(node);
+            totalBytes.addAndGet(bytes);
+            inserts.increment();
+            return new Tree(postId, tree.loadStamp, tree.loadedAtNanos,
+                    insertBelow(tree.roots, pathTo(tree.parentIds, parentId), 0, node),
+                    parentIds, tree.estimatedBytes + bytes, tree.lastReadNanos);
+        });
+        trimToBounds();
+    }
+
+    private void prune(Long postId, Long commentId) {
+        trees.compute(postId, (id, tree) -> {
+            markModified(postId);
+            if (tree == null || !tree.parentIds.containsKey(commentId)) {
+                return tree;
+            }
+            List<Long> path = pathTo(tree.parentIds, commentId);
+            CommentResponseDto removed = find(tree.roots, path);
+            Map<Long, Long> parentIds = new HashMap<>(tree.parentIds);
+            long bytes = forget(parentIds, removed);
+            totalBytes.addAndGet(-bytes);
+            prunes.increment();
+            return new Tree(postId, tree.loadStamp, tree.loadedAtNanos, removeBelow(tree.roots, path, 0),
+                    parentIds, tree.estimatedBytes - bytes, tree.lastReadNanos);
+        });
+    }
+
+    // Ids from the top-level ancestor down to commentId; empty for null (the top level itself).
+    private static List<Long> pathTo(Map<Long, Long> parentIds, Long commentId) {
+        List<Long> path = new ArrayList<>();
+        for (Long id = commentId; id != null; id = parentIds.get(id)) {
+            path.add(id);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private static List<CommentResponseDto> insertBelow(List<CommentResponseDto> siblings, List<Long> path, int level,
+                                                        CommentResponseDto node) {
+        List<CommentResponseDto> copy = new ArrayList<>(siblings.size() + 1);
+        copy.addAll(siblings);
+        if (level == path.size()) {
+            Comparator<CommentResponseDto> order = level == 0 ? NEWEST_FIRST : OLDEST_FIRST;
+            // After any siblings that sort equal, as a stable sort of the reloaded tree would put it.
+            int at = copy.size();
+            while (at > 0 && order.compare(copy.get(at - 1), node) > 0) {
+                at--;
+            }
+            copy.add(at, node);
+        } else {
+            int index = indexOf(copy, path.get(level));
+            CommentResponseDto parent = copy.get(index);
+            copy.set(index, copyOf(parent, insertBelow(parent.getReplies(), path, level + 1, node)));
+        }
+        return Collections.unmodifiableList(copy);
+    }
+
+    private static List<CommentResponseDto> removeBelow(List<CommentResponseDto> siblings, List<Long> path, int level) {
+        List<CommentResponseDto> copy = new ArrayList<>(siblings);
+        int index = indexOf(copy, path.get(level));
+        if (level == path.size() - 1) {
+            copy.remove(index);
+        } else {
+            CommentResponseDto parent = copy.get(index);
+            copy.set(index, copyOf(parent, removeBelow(parent.getReplies(), path, level + 1)));
+        }
+        return Collections.unmodifiableList(copy);
+    }
+
+    private static CommentResponseDto find(List<CommentResponseDto> roots, List<Long> path) {
+        List<CommentResponseDto> siblings = roots;
+        CommentResponseDto node = null;
+        for (Long id : path) {
+            node = siblings.get(indexOf(siblings, id));
+            siblings = node.getReplies();
+        }
+        return node;
+    }
+
+    private static int indexOf(List<CommentResponseDto> siblings, Long id) {
+        for (int i = 0; i < siblings.size(); i++) {
+            if (siblings.get(i).getId().equals(id)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Comment " + id + " missing from cached tree");
+    }
+
+    // Removes the node and its replies from the parent index and returns their estimated size.
+    private static long forget(Map<Long, Long> parentIds, CommentResponseDto node) {
+        long bytes = estimateBytes(node);
+        parentIds.remove(node.getId());
+        for (CommentResponseDto reply : node.getReplies()) {
+            bytes += forget(parentIds, reply);
+        }
+        return bytes;
+    }
+
+    // --- Building and bounding ---
+
+    private static Tree freeze(Long postId, long stamp, List<CommentResponseDto> roots) {
+        Map<Long, Long> parentIds = new HashMap<>();
+        long[] bytes = new long[1];
+        List<CommentResponseDto> frozen = freezeAll(parentIds, bytes, roots);
+        long now = System.nanoTime();
+        return new Tree(postId, stamp, now, frozen, parentIds, bytes[0], now);
+    }
+
+    private static List<CommentResponseDto> freezeAll(Map<Long, Long> parentIds, long[] bytes,
+                                                      List<CommentResponseDto> nodes) {
+        List<CommentResponseDto> frozen = new ArrayList<>(nodes.size());
+        for (CommentResponseDto node : nodes) {
+            parentIds.put(node.getId(), node.getParentCommentId());
+            bytes[0] += estimateBytes(node);
+            frozen.add(copyOf(node, freezeAll(parentIds, bytes, node.getReplies())));
+        }
+        return Collections.unmodifiableList(frozen);
+    }
+
+    private static CommentResponseDto copyOf(CommentResponseDto node, List<CommentResponseDto> replies) {
+        CommentResponseDto copy = new CommentResponseDto(node.getId(), node.getContent(), node.getAuthorName(),
+                node.getCreatedAt(), node.getParentCommentId(), node.getPostTitle());
+        copy.setReplies(replies);
+        return copy;
+    }
+
+    private static long estimateBytes(CommentResponseDto node) {
+        return NODE_OVERHEAD_BYTES + 2L * (length(node.getContent()) + length(node.getAuthorName()) + length(node.getPostTitle()));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    // Called inside trees.compute() for the post, so it is atomic with the store check in get().
+    // remove() first so a rewritten post moves to the young end.
+    private void markModified(Long postId) {
+        synchronized (modifiedAt) {
+            modifiedAt.remove(postId);
+            modifiedAt.put(postId, clock.incrementAndGet());
+        }
+    }
+
+    // Whether a load of the post stamped at stamp saw every write to it.
+    private boolean isCurrent(Long postId, long stamp) {
+        synchronized (modifiedAt) {
+            Long postModifiedAt = modifiedAt.get(postId);
+            return stamp >= modifiedBefore && stamp >= evictedAllAt
+                    && (postModifiedAt == null || stamp >= postModifiedAt);
+        }
+    }
+
+    // Drops least recently read trees until within bounds. Only writes and loads get here; concurrent
+    // callers may each drop a tree, which at worst costs one extra reload.
+    private void trimToBounds() {
+        while (trees.size() > maxTrees || totalBytes.get() > maxBytes) {
+            Tree leastRecentlyRead = null;
+            for (Tree tree : trees.values()) {
+                if (leastRecentlyRead == null || tree.lastReadNanos - leastRecentlyRead.lastReadNanos < 0) {
+                    leastRecentlyRead = tree;
+                }
+            }
+            if (leastRecentlyRead == null) {
+                return;
+            }
+            discard(leastRecentlyRead);
+        }
+    }
+
+    // Removes the tree unless it was replaced or removed meanwhile.
+    private void discard(Tree tree) {
+        if (trees.remove(tree.postId, tree)) {
+            totalBytes.addAndGet(-tree.estimatedBytes);
+            evictions.increment();
+        }
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
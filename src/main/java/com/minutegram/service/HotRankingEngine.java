@@ -0,0 +1,327 @@
+package com.minutegram.service;
+
+import com.minutegram.dto.CursorPage;
+import com.minutegram.exception.InvalidInputException;
+import com.minutegram.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+
+/**
+ * Maintains the "hot" ranking in memory, updated incrementally as posts, likes and comments arrive.
+ *
+ * The score is the classic log-points-plus-age formula:
+ *   score = log10(max(points, 1)) + (createdAt - epoch) / decaySeconds,  points = likes + 2 * comments
+ * A post needs 10x the points to outrank one that is decaySeconds newer. Because the age term only
+ * depends on createdAt, a score only changes when the post itself gets a like or comment, so updates
+ * are O(log K) and nothing has to be re-scored as time passes.
+ *
+ * The engine keeps a bounded top-K set globally and per topic. Posts that fall out of every set are
+ * forgotten; the periodic rebuild from the database picks them up again if they have caught up.
+ *
+ * While a rebuild is reading the database, incremental updates still go to the live generation and
+ * are also recorded; they are replayed onto the new generation just before it is published, so a
+ * like or comment that commits mid-rebuild is not lost when the generations swap. An update that
+ * commits in the short gap between starting the record and the query's snapshot is counted twice
+ * until the next rebuild; re-placing a created post and removals are idempotent.
+ */
+@Service
+public class HotRankingEngine {
+
+    private static final long EPOCH_SECONDS = LocalDateTime.of(2024, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final class Entry {
+        final long postId;
+        final long topicId;
+        final LocalDateTime createdAt;
+        final int likes;
+        final int comments;
+        final double score;
+
+        Entry(long postId, long topicId, LocalDateTime createdAt, int likes, int comments, double score) {
+            this.postId = postId;
+            this.topicId = topicId;
+            this.createdAt = createdAt;
+            this.likes = likes;
+            this.comments = comments;
+            this.score = score;
+        }
+    }
+
+    private static final Comparator<Entry> HOTTEST_FIRST = Comparator
+            .comparingDouble((Entry e) -> e.score).reversed()
+            .thenComparing(Comparator.comparingLong((Entry e) -> e.postId).reversed());
+
+    /**
+     * One consistent generation of the ranking; rebuilds swap in a fresh instance.
+     */
+    private static final class Rankings {
+        final ConcurrentHashMap<Long, Entry> tracked = new ConcurrentHashMap<>();
+        final ConcurrentSkipListSet<Entry> global = new ConcurrentSkipListSet<>(HOTTEST_FIRST);
+        final ConcurrentHashMap<Long, ConcurrentSkipListSet<Entry>> byTopic = new ConcurrentHashMap<>();
+
+        ConcurrentSkipListSet<Entry> topic(long topicId) {
+            return byTopic.computeIfAbsent(topicId, id -> new ConcurrentSkipListSet<>(HOTTEST_FIRST));
+        }
+    }
+
+    private final PostRepository postRepository;
+    private final int globalTopK;
+    private final int topicTopK;
+    private final double decaySeconds;
+    private final int rebuildWindowDays;
+    private final int rebuildMaxPosts;
+
+    private volatile Rankings rankings = new Rankings();
+    // Updates applied while a rebuild is running, to be replayed onto its result; null otherwise. Guarded by this.
+    private List<Consumer<Rankings>> updatesDuringRebuild;
+    private final Object rebuildLock = new Object();
+
+    public HotRankingEngine(PostRepository postRepository,
+                            @Value("${minutegram.hot.global-top-k:1000}") int globalTopK,
+                            @Value("${minutegram.hot.topic-top-k:200}") int topicTopK,
+                            @Value("${minutegram.hot.decay-seconds:45000}") double decaySeconds,
+                            @Value("${minutegram.hot.rebuild-window-days:7}") int rebuildWindowDays,
+                            @Value("${minutegram.hot.rebuild-max-posts:50000}") int rebuildMaxPosts) {
+        this.postRepository = postRepository;
+        this.globalTopK = globalTopK;
+        this.topicTopK = topicTopK;
+        this.decaySeconds = decaySeconds;
+        this.rebuildWindowDays = rebuildWindowDays;
+        this.rebuildMaxPosts = rebuildMaxPosts;
+    }
+
+    double score(LocalDateTime createdAt, int likes, int comments) {
+        int points = likes + 2 * comments;
+        double order = Math.log10(Math.max(points, 1));
+        double age = createdAt.toEpochSecond(ZoneOffset.UTC) - EPOCH_SECONDS;
+        return order + age / decaySeconds;
+    }
+
+    // --- Rebuild ---
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${minutegram.hot.rebuild-interval-ms:900000}",
+               fixedDelayString = "${minutegram.hot.rebuild-interval-ms:900000}")
+    public void rebuild() {
+        // One rebuild at a time, so there is only ever one record of updates to replay.
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                updatesDuringRebuild = new ArrayList<>();
+            }
+            try {
+                Rankings fresh = load();
+                synchronized (this) {
+                    for (Consumer<Rankings> update : updatesDuringRebuild) {
+                        update.accept(fresh);
+                    }
+                    rankings = fresh;
+                }
+            } finally {
+                synchronized (this) {
+                    updatesDuringRebuild = null;
+                }
+            }
+        }
+    }
+
+    private Rankings load() {
+        LocalDateTime since = LocalDateTime.now().minusDays(rebuildWindowDays);
+        List<Object[]> rows = postRepository.findRankingInputsSince(since, PageRequest.of(0, rebuildMaxPosts));
+
+        Rankings fresh = new Rankings();
+        for (Object[] row : rows) {
+            Long postId = (Long) row[0];
+            Long topicId = (Long) row[1];
+            LocalDateTime createdAt = (LocalDateTime) row[2];
+            int likes = ((Number) row[3]).intValue();
+            int comments = ((Number) row[4]).intValue();
+            place(fresh, new Entry(postId, topicId, createdAt, likes, comments, score(createdAt, likes, comments)));
+        }
+        return fresh;
+    }
+
+    // --- Incremental updates (applied once the writing transaction commits) ---
+
+    public void onPostCreated(Long postId, Long topicId, LocalDateTime createdAt) {
+        afterCommit(() -> apply(current -> {
+            // The rebuild may already have loaded the post, possibly with likes; keep that entry.
+            if (!current.tracked.containsKey(postId)) {
+                place(current, new Entry(postId, topicId, createdAt, 0, 0, score(createdAt, 0, 0)));
+            }
+        }));
+    }
+
+    public void onLikesChanged(Long postId, int delta) {
+        afterCommit(() -> apply(current -> adjust(current, postId, delta, 0)));
+    }
+
+    public void onCommentsChanged(Long postId, int delta) {
+        afterCommit(() -> apply(current -> adjust(current, postId, 0, delta)));
+    }
+
+    public void onPostDeleted(Long postId) {
+        afterCommit(() -> apply(current -> {
+            Entry entry = current.tracked.remove(postId);
+            if (entry != null) {
+                current.global.remove(entry);
+                current.topic(entry.topicId).remove(entry);
+            }
+        }));
+    }
+
+    public void onTopicDeleted(Long topicId) {
+        afterCommit(() -> apply(current -> {
+            ConcurrentSkipListSet<Entry> topicSet = current.byTopic.remove(topicId);
+            if (topicSet != null) {
+                for (Entry entry : topicSet) {
+                    current.tracked.remove(entry.postId);
+                    current.global.remove(entry);
+                }
+            }
+            // Posts of this topic that only made the global set.
+            current.global.removeIf(entry -> entry.topicId == topicId);
+            current.tracked.values().removeIf(entry -> entry.topicId == topicId);
+        }));
+    }
+
+    // Applies the update to the live generation and records it if a rebuild is in progress.
+    private synchronized void apply(Consumer<Rankings> update) {
+        update.accept(rankings);
+        if (updatesDuringRebuild != null) {
+            updatesDuringRebuild.add(update);
+        }
+    }
+
+    private void adjust(Rankings current, Long postId, int likeDelta, int commentDelta) {
+        Entry old = current.tracked.get(postId);
+        if (old == null) {
+            // Not in any top-K; the next rebuild will re-rank it if it has become hot.
+            return;
+        }
+        int likes = Math.max(0, old.likes + likeDelta);
+        int comments = Math.max(0, old.comments + commentDelta);
+        current.global.remove(old);
+        current.topic(old.topicId).remove(old);
+        place(current, new Entry(old.postId, old.topicId, old.createdAt, likes, comments,
+                score(old.createdAt, likes, comments)));
+    }
+
+    private void place(Rankings target, Entry entry) {
+        ConcurrentSkipListSet<Entry> topicSet = target.topic(entry.topicId);
+        target.tracked.put(entry.postId, entry);
+        target.global.add(entry);
+        topicSet.add(entry);
+
+        while (target.global.size() > globalTopK) {
+            Entry evicted = target.global.pollLast();
+            if (evicted != null && !target.topic(evicted.topicId).contains(evicted)) {
+                target.tracked.remove(evicted.postId, evicted);
+            }
+        }
+        while (topicSet.size() > topicTopK) {
+            Entry evicted = topicSet.pollLast();
+            if (evicted != null && !target.global.contains(evicted)) {
+                target.tracked.remove(evicted.postId, evicted);
+            }
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // --- Reads ---
+
+    /**
+     * A page of post ids, hottest first, either globally (topicId == null) or for one topic.
+     * The cursor is the (score, postId) of the last item of the previous page.
+     */
+    public CursorPage<Long> page(Long topicId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Rankings current = rankings;
+        NavigableSet<Entry> source = topicId == null ? current.global : current.byTopic.get(topicId);
+        if (source == null) {
+            return new CursorPage<>(List.of(), null, false);
+        }
+
+        Entry after = decodeCursor(cursor);
+        NavigableSet<Entry> view = after == null ? source : source.tailSet(after, false);
+
+        List<Long> ids = new ArrayList<>(pageSize);
+        Entry last = null;
+        boolean hasNext = false;
+        for (Entry entry : view) {
+            if (ids.size() == pageSize) {
+                hasNext = true;
+                break;
+            }
+            ids.add(entry.postId);
+            last = entry;
+        }
+        String nextCursor = hasNext ? encodeCursor(last) : null;
+        return new CursorPage<>(ids, nextCursor, hasNext);
+    }
+
+    public int trackedPosts() {
+        return rankings.tracked.size();
+    }
+
+    private String encodeCursor(Entry entry) {
+        String raw = entry.score + "|" + entry.postId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Entry decodeCursor(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new InvalidInputException("invalid cursor");
+            }
+            double score = Double.parseDouble(raw.substring(0, separator));
+            long postId = Long.parseLong(raw.substring(separator + 1));
+            // Only score and postId take part in the ordering; the rest is a probe.
+            return new Entry(postId, 0, null, 0, 0, score);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException("invalid cursor");
+        }
+    }
+}
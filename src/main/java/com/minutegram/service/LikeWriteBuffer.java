@@ -0,0 +1,279 @@
+package com.minutegram.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Optional write-behind mode for likes (minutegram.likes.write-behind.enabled).
+ *
+ * Like/unlike intents are recorded in a ConcurrentHashMap keyed by (post, user), so repeated
+ * clicks by the same user coalesce into the last intent, and hot posts never contend on a row lock
+ * in the request path. A background thread drains the map every few hundred milliseconds and writes
+ * it with JDBC batches in one transaction. Until then, reads add pendingLikeDelta() to the stored
+ * like_count so users see their own like immediately. offer() makes no database round trip: the
+ * overlay assumes the first intent queued for a key changes the row (a like of a post not yet liked),
+ * and the flush is idempotent, so only rows the batch actually inserted or deleted move like_count
+ * and the hot ranking. A repeated like can thus show one extra like until the next flush.
+ *
+ * The buffer is bounded: once maxPending intents are queued, offer() refuses and the caller falls
+ * back to a synchronous write. Everything still queued is flushed on shutdown.
+ */
+@Service
+public class LikeWriteBuffer {
+
+    private static final String INSERT_LIKE_SQL =
+            "INSERT INTO post_likes (post_id, user_id) " +
+            "SELECT ?, ? WHERE EXISTS (SELECT 1 FROM post WHERE id = ?) " +
+            "ON CONFLICT DO NOTHING";
+    private static final String DELETE_LIKE_SQL =
+            "DELETE FROM post_likes WHERE post_id = ? AND user_id = ?";
+    private static final String ADJUST_COUNT_SQL =
+            "UPDATE post SET like_count = like_count + ? WHERE id = ?";
+
+    private record LikeKey(long postId, long userId) {}
+
+    /**
+     * @param like   the latest requested state
+     * @param stored the state the overlay assumes the row had when this key was first queued:
+     *               the opposite of that first intent. The flush does not rely on it.
+     */
+    private record Intent(boolean like, boolean stored) {
+        int contribution() {
+            return (like ? 1 : 0) - (stored ? 1 : 0);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PostLikeEngine postLikeEngine;
+    private final PostDetailCache postDetailCache;
+    private final HotRankingEngine hotRankingEngine;
+    private final boolean enabled;
+    private final long flushIntervalMs;
+    private final int maxPending;
+
+    private final ConcurrentHashMap<LikeKey, Intent> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Integer> pendingDeltas = new ConcurrentHashMap<>();
+    private final AtomicLong flushedIntents = new AtomicLong();
+    private final AtomicLong rejectedIntents = new AtomicLong();
+    private final AtomicReference<ScheduledExecutorService> flusher = new AtomicReference<>();
+
+    public LikeWriteBuffer(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           PostLikeEngine postLikeEngine,
+                           PostDetailCache postDetailCache,
+                           HotRankingEngine hotRankingEngine,
+                           @Value("${minutegram.likes.write-behind.enabled:false}") boolean enabled,
+                           @Value("${minutegram.likes.write-behind.flush-interval-ms:250}") long flushIntervalMs,
+                           @Value("${minutegram.likes.write-behind.max-pending:100000}") int maxPending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.postLikeEngine = postLikeEngine;
+        this.postDetailCache = postDetailCache;
+        this.hotRankingEngine = hotRankingEngine;
+        this.enabled = enabled;
+        this.flushIntervalMs = flushIntervalMs;
+        this.maxPending = maxPending;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "like-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        flusher.set(executor);
+    }
+
+    @PreDestroy
+    void stop() {
+        ScheduledExecutorService executor = flusher.getAndSet(null);
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Whatever is still queued must reach the database before the pool closes.
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a like (like = true) or unlike intent.
+     * @return false if the buffer is disabled or full; the caller must then write synchronously.
+     */
+    public boolean offer(Long postId, Long userId, boolean like) {
+        if (!enabled) {
+            return false;
+        }
+        LikeKey key = new LikeKey(postId, userId);
+        if (pending.size() >= maxPending && !pending.containsKey(key)) {
+            rejectedIntents.incrementAndGet();
+            return false;
+        }
+        Intent[] previous = new Intent[1];
+        Intent intent = pending.compute(key, (k, current) -> {
+            previous[0] = current;
+            return new Intent(like, current != null ? current.stored() : !like);
+        });
+        int delta = intent.contribution() - (previous[0] == null ? 0 : previous[0].contribution());
+        if (delta != 0) {
+            adjustDelta(postId, delta);
+        }
+        return true;
+    }
+
+    /**
+     * The not-yet-flushed change to a post's like_count, to be added on read.
+     */
+    public int pendingLikeDelta(Long postId) {
+        return pendingDeltas.getOrDefault(postId, 0);
+    }
+
+    /**
+     * Drains the buffer and writes it in JDBC batches within one transaction.
+     * Keys are written in (post, user) order so concurrent flushers and synchronous
+     * writers always lock rows in the same order.
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<LikeKey, Intent>> drained = new ArrayList<>();
+        for (LikeKey key : pending.keySet()) {
+            Intent intent = pending.remove(key);
+            if (intent != null) {
+                drained.add(Map.entry(key, intent));
+            }
+        }
+        drained.sort(Comparator.comparingLong((Map.Entry<LikeKey, Intent> e) -> e.getKey().postId())
+                .thenComparingLong(e -> e.getKey().userId()));
+
+        try {
+            Map<Long, Integer> countDeltas = transactionTemplate.execute(status -> writeBatch(drained));
+            // Only once the batch has committed; if it fails, writeIndividually ranks each row itself.
+            countDeltas.forEach(hotRankingEngine::onLikesChanged);
+        } catch (RuntimeException e) {
+            // A single bad row (e.g. a user deleted meanwhile) fails the whole batch; retry one by one.
+            System.out.println("Like batch flush failed, retrying individually: " + e.getMessage());
+            writeIndividually(drained);
+        } finally {
+            // The flushed likes now live in like_count, so cached detail pages must be reloaded.
+            for (Map.Entry<LikeKey, Intent> entry : drained) {
+                adjustDelta(entry.getKey().postId(), -entry.getValue().contribution());
+                postDetailCache.evict(entry.getKey().postId());
+            }
+            flushedIntents.addAndGet(drained.size());
+        }
+    }
+
+    private Map<Long, Integer> writeBatch(List<Map.Entry<LikeKey, Intent>> drained) {
+        List<Object[]> likes = new ArrayList<>();
+        List<Object[]> unlikes = new ArrayList<>();
+        List<Long> likePostIds = new ArrayList<>();
+        List<Long> unlikePostIds = new ArrayList<>();
+        for (Map.Entry<LikeKey, Intent> entry : drained) {
+            LikeKey key = entry.getKey();
+            if (entry.getValue().like()) {
+                likes.add(new Object[]{key.postId(), key.userId(), key.postId()});
+                likePostIds.add(key.postId());
+            } else {
+                unlikes.add(new Object[]{key.postId(), key.userId()});
+                unlikePostIds.add(key.postId());
+            }
+        }
+
+        // Only rows that actually changed move the counter, which keeps like_count exact.
+        Map<Long, Integer> countDeltas = new HashMap<>();
+        if (!likes.isEmpty()) {
+            int[] inserted = jdbcTemplate.batchUpdate(INSERT_LIKE_SQL, likes);
+            for (int i = 0; i < inserted.length; i++) {
+                if (inserted[i] > 0) {
+                    countDeltas.merge(likePostIds.get(i), 1, Integer::sum);
+                }
+            }
+        }
+        if (!unlikes.isEmpty()) {
+            int[] deleted = jdbcTemplate.batchUpdate(DELETE_LIKE_SQL, unlikes);
+            for (int i = 0; i < deleted.length; i++) {
+                if (deleted[i] > 0) {
+                    countDeltas.merge(unlikePostIds.get(i), -1, Integer::sum);
+                }
+            }
+        }
+
+        countDeltas.values().removeIf(delta -> delta == 0);
+        List<Object[]> adjustments = new ArrayList<>();
+        countDeltas.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> adjustments.add(new Object[]{e.getValue(), e.getKey()}));
+        if (!adjustments.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADJUST_COUNT_SQL, adjustments);
+        }
+        return countDeltas;
+    }
+
+    private void writeIndividually(List<Map.Entry<LikeKey, Intent>> drained) {
+        for (Map.Entry<LikeKey, Intent> entry : drained) {
+            LikeKey key = entry.getKey();
+            try {
+                if (entry.getValue().like()) {
+                    postLikeEngine.like(key.postId(), key.userId());
+                } else {
+                    postLikeEngine.unlike(key.postId(), key.userId());
+                }
+            } catch (RuntimeException e) {
+                System.out.println("Dropping like intent " + key + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // merge() is atomic per key; a sum of zero removes the entry so the map only holds posts with pending work.
+    private void adjustDelta(long postId, int delta) {
+        pendingDeltas.merge(postId, delta, (current, change) -> current + change == 0 ? null : current + change);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            System.out.println("Like write-behind flush failed: " + e.getMessage());
+        }
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new HashMap<>();
+        stats.put("pending", (long) pending.size());
+        stats.put("flushed", flushedIntents.get());
+        stats.put("rejected", rejectedIntents.get());
+        return stats;
+    }
+}
@@ -25,6 +25,24 @@ public class ModeratorService {
     @Autowired
     private TopicRepository topicRepository;
 
+    @Autowired
+    private PostDetailCache postDetailCache;
+
+    @Autowired
+    private HotRankingEngine hotRankingEngine;
+
+    @Autowired
+    private CommentTreeCache commentTreeCache;
+
+    @Autowired
+    private TopicDirectory topicDirectory;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
 
     @Transactional
     public User banUser(Long userId) {
@@ -38,6 +56,8 @@ public class ModeratorService {
         }
 
         user.setBanned(true);
+        // No new access tokens, and the current ones are revoked.
+        refreshTokenService.revokeAllSessions(userId);
         return userRepository.save(user);
     }
 
@@ -59,18 +79,26 @@ public class ModeratorService {
         }
 
 
+        topicRepository.adjustPostCountOfPost(postId, -1);
         postRepository.deleteById(postId);
+        timelineService.onPostDeleted(postId);
+        postDetailCache.evict(postId);
+        commentTreeCache.evict(postId);
+        hotRankingEngine.onPostDeleted(postId);
     }
 
 
     @Transactional
     public void deleteComment(Long commentId) {
-        if (!commentRepository.existsById(commentId)) {
-            throw new RuntimeException("Comment not found");
-        }
-
+        Long postId = commentRepository.findPostIdById(commentId)
+                .orElseThrow(() -> new RuntimeException("Comment not found"));
 
+        commentRepository.adjustParentReplyCount(commentId, -1);
         commentRepository.deleteById(commentId);
+        postRepository.adjustCommentCount(postId, -1);
+        postDetailCache.evict(postId);
+        commentTreeCache.onCommentDeleted(postId, commentId);
+        hotRankingEngine.onCommentsChanged(postId, -1);
     }
 
 
@@ -81,6 +109,12 @@ public class ModeratorService {
         }
 
 
+        timelineService.onTopicDeleted(topicId);
+        topicDirectory.onTopicDeleted(topicId);
         topicRepository.deleteById(topicId);
+        // Deleting a topic cascades to all of its posts.
+        postDetailCache.evictAll();
+        commentTreeCache.evictAll();
+        hotRankingEngine.onTopicDeleted(topicId);
     }
 }
\ No newline at end of file
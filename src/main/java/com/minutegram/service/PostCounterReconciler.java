@@ -0,0 +1,136 @@
+package com.minutegram.service;
+
+import com.minutegram.repository.CommentRepository;
+import com.minutegram.repository.PostRepository;
+import com.minutegram.repository.TopicRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Finds and repairs drift between the denormalized Post.likeCount/commentCount,
+ * Comment.replyCount and Topic.postCount/lastPostAt columns and the rows they summarize.
+ * Walks each table in id ranges, one short transaction per range, so it never holds row locks on
+ * the whole table. Each range is locked before it is counted: an increment committed between the
+ * count and the write would otherwise be overwritten, and the repair would itself cause drift.
+ * Ranges are locked in id order, the order LikeWriteBuffer adjusts counters in.
+ *
+ * Optionally (minutegram.counters.startup-backfill.enabled, off by default) also runs once at
+ * startup, ahead of HotRankingEngine.rebuildOnStartup, so rows written before the counter columns
+ * existed (added with default 0) are filled in before anything ranks or sorts by them. It walks
+ * every table before the application reports ready, so enable it only for the first start after
+ * the migration.
+ */
+@Service
+public class PostCounterReconciler {
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final TopicRepository topicRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean backfillOnStartup;
+    private final int batchSize;
+
+    public PostCounterReconciler(PostRepository postRepository,
+                                 CommentRepository commentRepository,
+                                 TopicRepository topicRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${minutegram.counters.startup-backfill.enabled:false}") boolean backfillOnStartup,
+                                 @Value("${minutegram.counters.reconcile-batch-size:5000}") int batchSize) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.topicRepository = topicRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.backfillOnStartup = backfillOnStartup;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onApplicationReady() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        Map<String, Integer> repaired = new HashMap<>();
+        reconcilePostCounters(repaired);
+        reconcileReplyCounts(repaired);
+        reconcileTopicCounters(repaired);
+        if (repaired.values().stream().anyMatch(count -> count > 0)) {
+            System.out.println("Backfilled post counters: " + repaired);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${minutegram.counters.reconcile-interval-ms:3600000}",
+               fixedDelayString = "${minutegram.counters.reconcile-interval-ms:3600000}")
+    public void scheduledReconcile() {
+        Map<String, Integer> repaired = reconcile();
+        if (repaired.values().stream().anyMatch(count -> count > 0)) {
+            System.out.println("Repaired post counter drift: " + repaired);
+        }
+    }
+
+    public Map<String, Integer> reconcile() {
+        Map<String, Integer> result = new HashMap<>();
+        reconcilePostCounters(result);
+        reconcileReplyCounts(result);
+        reconcileTopicCounters(result);
+        return result;
+    }
+
+    private void reconcilePostCounters(Map<String, Integer> result) {
+        long maxId = postRepository.findMaxId();
+        int likesRepaired = 0;
+        int commentsRepaired = 0;
+
+        for (long start = 1; start <= maxId; start += batchSize) {
+            final long fromId = start;
+            final long toId = start + batchSize - 1;
+            int[] repaired = transactionTemplate.execute(status -> {
+                postRepository.lockIdRange(fromId, toId);
+                return new int[]{
+                        postRepository.reconcileLikeCounts(fromId, toId),
+                        postRepository.reconcileCommentCounts(fromId, toId)};
+            });
+            likesRepaired += repaired[0];
+            commentsRepaired += repaired[1];
+        }
+        result.put("likeCountsRepaired", likesRepaired);
+        result.put("commentCountsRepaired", commentsRepaired);
+    }
+
+    private void reconcileReplyCounts(Map<String, Integer> result) {
+        long maxCommentId = commentRepository.findMaxId();
+        int repliesRepaired = 0;
+        for (long start = 1; start <= maxCommentId; start += batchSize) {
+            final long fromId = start;
+            final long toId = start + batchSize - 1;
+            repliesRepaired += transactionTemplate.execute(status -> {
+                commentRepository.lockIdRange(fromId, toId);
+                return commentRepository.reconcileReplyCounts(fromId, toId);
+            });
+        }
+        result.put("replyCountsRepaired", repliesRepaired);
+    }
+
+    private void reconcileTopicCounters(Map<String, Integer> result) {
+        long maxTopicId = topicRepository.findMaxId();
+        int topicsRepaired = 0;
+        for (long start = 1; start <= maxTopicId; start += batchSize) {
+            final long fromId = start;
+            final long toId = start + batchSize - 1;
+            topicsRepaired += transactionTemplate.execute(status -> {
+                topicRepository.lockIdRange(fromId, toId);
+                return topicRepository.reconcilePostCounts(fromId, toId);
+            });
+        }
+        result.put("topicPostCountsRepaired", topicsRepaired);
+    }
+}
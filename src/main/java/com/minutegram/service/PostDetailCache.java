@@ -0,0 +1,100 @@
+package com.minutegram.service;
+
+import com.minutegram.cache.BoundedCache;
+import com.minutegram.cache.CacheRegistry;
+import com.minutegram.cache.SingleFlight;
+import com.minutegram.dto.PostWithCommentsDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for GET /api/posts/{postId}.
+ * Entries are dropped by every write that changes what the page shows: new comments,
+ * likes, post deletes and moderation deletes.
+ *
+ * Misses go through a SingleFlight, so when a hot entry expires only one request reloads it
+ * and the others wait for that result. A caller that joins a load which started before the
+ * post was last invalidated (for example by its own write) reloads instead of returning that
+ * result, so writers read their own writes. With the cache disabled
+ * (minutegram.cache.post-detail.enabled=false) every read goes straight to the loader.
+ */
+@Service
+public class PostDetailCache {
+
+    // A loaded page with the stamp taken before its load started.
+    private record Loaded(PostWithCommentsDto value, long stamp) {}
+
+    private final BoundedCache<Long, PostWithCommentsDto> cache;
+    private final SingleFlight<Long, Loaded> singleFlight;
+    private final boolean enabled;
+
+    public PostDetailCache(CacheRegistry cacheRegistry,
+                           @Value("${minutegram.cache.post-detail.enabled:true}") boolean enabled,
+                           @Value("${minutegram.cache.post-detail.max-size:1000}") int maxSize,
+                           @Value("${minutegram.cache.post-detail.ttl-seconds:30}") long ttlSeconds) {
+        this.cache = cacheRegistry.register(
+                new BoundedCache<>("post-detail", maxSize, Duration.ofSeconds(ttlSeconds)));
+        this.singleFlight = cacheRegistry.register(new SingleFlight<>("post-detail"));
+        this.enabled = enabled;
+    }
+
+    public PostWithCommentsDto get(Long postId, Supplier<PostWithCommentsDto> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        PostWithCommentsDto cached = cache.get(postId);
+        if (cached != null) {
+            return cached;
+        }
+        boolean[] led = new boolean[1];
+        Loaded loaded = singleFlight.load(postId, () -> {
+            led[0] = true;
+            return load(postId, loader);
+        });
+        if (led[0] || cache.isCurrent(postId, loaded.stamp())) {
+            return loaded.value();
+        }
+        // Joined a load that started before the post was invalidated; it may predate our own write.
+        return load(postId, loader).value();
+    }
+
+    private Loaded load(Long postId, Supplier<PostWithCommentsDto> loader) {
+        long stamp = cache.loadStamp();
+        PostWithCommentsDto value = loader.get();
+        cache.put(postId, value, stamp);
+        return new Loaded(value, stamp);
+    }
+
+    /**
+     * Evicts now, and again once the surrounding transaction commits, so a reader that loaded
+     * the pre-commit state in between cannot leave it behind in the cache.
+     */
+    public void evict(Long postId) {
+        cache.invalidate(postId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(postId);
+                }
+            });
+        }
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidateAll();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.minutegram.service;
+
+import com.minutegram.repository.PostRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records likes with one idempotent, index-backed statement per call.
+ * Never loads the Post, the User or the likedByUsers collection, so the cost of a like
+ * does not depend on how many likes the post already has.
+ */
+@Service
+@Transactional
+public class PostLikeEngine {
+
+    private final PostRepository postRepository;
+    private final HotRankingEngine hotRankingEngine;
+
+    public PostLikeEngine(PostRepository postRepository, HotRankingEngine hotRankingEngine) {
+        this.postRepository = postRepository;
+        this.hotRankingEngine = hotRankingEngine;
+    }
+
+    /**
+     * @return true if a new like row was inserted, false if the user had already liked
+     *         the post or the post does not exist.
+     */
+    public boolean like(Long postId, Long userId) {
+        boolean liked = postRepository.insertLike(postId, userId) > 0;
+        if (liked) {
+            hotRankingEngine.onLikesChanged(postId, 1);
+        }
+        return liked;
+    }
+
+    /**
+     * @return true if an existing like row was removed, false if there was none.
+     */
+    public boolean unlike(Long postId, Long userId) {
+        boolean unliked = postRepository.deleteLike(postId, userId) > 0;
+        if (unliked) {
+            hotRankingEngine.onLikesChanged(postId, -1);
+        }
+        return unliked;
+    }
+}
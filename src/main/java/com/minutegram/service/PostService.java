@@ -1,7 +1,10 @@
 package com.minutegram.service;
 
+import com.minutegram.dto.CursorPage;
+import com.minutegram.dto.FeedCursor;
 import com.minutegram.dto.PostCreateDto;
 import com.minutegram.dto.PostResponseDto;
+import com.minutegram.dto.PostSummaryDto;
 import com.minutegram.dto.PostWithCommentsDto;
 import com.minutegram.entity.Post;
 import com.minutegram.entity.Topic;
@@ -10,35 +13,67 @@ import com.minutegram.exception.InvalidInputException;
 import com.minutegram.exception.TopicNotFoundException;
 import com.minutegram.repository.PostRepository;
 import com.minutegram.repository.TopicRepository;
-import com.minutegram.repository.UserRepository;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Transactional
 public class PostService {
+    private static final int MAX_FEED_PAGE_SIZE = 100;
+
+    /**
+     * Newest first, with id as the tie-breaker so offset pages are stable when posts share a
+     * createdAt. Backed by idx_post_created_at_id and idx_post_topic_created_at_id.
+     */
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
     private final PostRepository postRepository;
     private final TopicRepository topicRepository;
     private final UserService userService;
     private final StorageService storageService;
-    private final UserRepository userRepository;
+    private final PostLikeEngine postLikeEngine;
+    private final LikeWriteBuffer likeWriteBuffer;
+    private final PostDetailCache postDetailCache;
+    private final CommentTreeCache commentTreeCache;
+    private final HotRankingEngine hotRankingEngine;
+    private final TimelineService timelineService;
+    private final TopicDirectory topicDirectory;
     private final CommentService commentService; // 
 
     public PostService(PostRepository postRepository,
                        TopicRepository topicRepository,
                        UserService userService,
                        StorageService storageService,
-                       UserRepository userRepository,
+                       PostLikeEngine postLikeEngine,
+                       LikeWriteBuffer likeWriteBuffer,
+                       PostDetailCache postDetailCache,
+                       CommentTreeCache commentTreeCache,
+                       HotRankingEngine hotRankingEngine,
+                       TimelineService timelineService,
+                       TopicDirectory topicDirectory,
                        CommentService commentService) { 
         this.postRepository = postRepository;
         this.topicRepository = topicRepository;
         this.userService = userService;
         this.storageService = storageService;
-        this.userRepository = userRepository;
+        this.postLikeEngine = postLikeEngine;
+        this.likeWriteBuffer = likeWriteBuffer;
+        this.postDetailCache = postDetailCache;
+        this.commentTreeCache = commentTreeCache;
+        this.hotRankingEngine = hotRankingEngine;
+        this.timelineService = timelineService;
+        this.topicDirectory = topicDirectory;
         this.commentService = commentService; // 
     }
 
@@ -56,13 +91,29 @@ public class PostService {
     public PostResponseDto createPost(PostCreateDto postDto, String imageUrl, String mediaType) {
         validatePostInput(postDto);
 
-        Topic topic = topicRepository.findByName(postDto.getTopicName())
+        // Resolved in memory; the topic is attached as a reference and never loaded.
+        Long topicId = topicDirectory.resolve(postDto.getTopicName())
                 .orElseThrow(() -> new TopicNotFoundException(postDto.getTopicName()));
+        Topic topic = topicRepository.getReferenceById(topicId);
 
-        User currentUser = userService.getCurrentUser();
+        // Attached by id from the token; the user row is not read.
+        User currentUser = userService.getCurrentUserReference();
 
+        // No row means the directory still had a topic that was deleted elsewhere; the insert would
+        // fail its foreign key and abort the transaction. The shared lock keeps the topic from being
+        // deleted before our commit without making concurrent posts to it wait.
+        if (topicRepository.lockForNewPost(topicId).isEmpty()) {
+            topicDirectory.onTopicMissing(topicId);
+            throw new TopicNotFoundException(postDto.getTopicName());
+        }
         Post post = createPostEntity(postDto, imageUrl, mediaType, topic, currentUser);
         Post savedPost = postRepository.save(post);
+        topicDirectory.onPostCreated(topicId);
+        hotRankingEngine.onPostCreated(savedPost.getId(), topicId, savedPost.getCreatedAt());
+        timelineService.onPostCreated(savedPost.getId(), topicId, savedPost.getCreatedAt());
+        // Last statement before commit: the counter update takes the topic's row lock, so every
+        // post to the topic queues on it; holding it only from here keeps the fan-out outside.
+        topicRepository.recordPost(topicId, savedPost.getCreatedAt());
 
         return postRepository.findProjectedById(savedPost.getId())
             .orElseThrow(() -> new RuntimeException("Could not find newly created post. This should not happen."));
@@ -75,8 +126,95 @@ public class PostService {
     }
 
     @Transactional(readOnly = true)
-    public Page<PostResponseDto> getAllPosts(Pageable pageable) {
-        return postRepository.findAllProjectedBy(pageable);
+    public Page<PostSummaryDto> getAllPosts(Pageable pageable) {
+        Page<PostSummaryDto> page = postRepository.findAllProjectedBy(pageable);
+        page.getContent().forEach(this::applyPendingLikes);
+        return page;
+    }
+
+    /**
+     * Like getAllPosts, but without the COUNT query; for infinite scroll that never shows totals.
+     */
+    @Transactional(readOnly = true)
+    public Slice<PostSummaryDto> getAllPostsSlice(Pageable pageable) {
+        Slice<PostSummaryDto> slice = postRepository.findSliceProjectedBy(pageable);
+        slice.getContent().forEach(this::applyPendingLikes);
+        return slice;
+    }
+
+    /**
+     * Keyset-paginated global feed, newest first.
+     * Fetches size + 1 rows to know whether another page exists, so there is no COUNT query.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PostSummaryDto> getFeed(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_FEED_PAGE_SIZE));
+        FeedCursor after = FeedCursor.decode(cursor);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<PostSummaryDto> rows = after == null
+                ? postRepository.findFeedFirstPage(limit)
+                : postRepository.findFeedAfter(after.getCreatedAt(), after.getId(), limit);
+
+        boolean hasNext = rows.size() > pageSize;
+        List<PostSummaryDto> items = hasNext ? rows.subList(0, pageSize) : rows;
+        items.forEach(this::applyPendingLikes);
+        String nextCursor = null;
+        if (hasNext) {
+            PostSummaryDto last = items.get(items.size() - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(items, nextCursor, hasNext);
+    }
+
+    /**
+     * The current user's home timeline: posts of the topics they subscribe to, newest first,
+     * with the same cursor format as the global feed.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PostSummaryDto> getHome(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_FEED_PAGE_SIZE));
+        FeedCursor after = FeedCursor.decode(cursor);
+        Long userId = userService.getCurrentUserId();
+
+        List<PostSummaryDto> rows = timelineService.loadHome(userId, after, pageSize + 1);
+
+        boolean hasNext = rows.size() > pageSize;
+        List<PostSummaryDto> items = hasNext ? rows.subList(0, pageSize) : rows;
+        items.forEach(this::applyPendingLikes);
+        String nextCursor = null;
+        if (hasNext) {
+            PostSummaryDto last = items.get(items.size() - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(items, nextCursor, hasNext);
+    }
+
+    /**
+     * "Hot" posts, globally or for one topic. The order comes from HotRankingEngine;
+     * only the page's posts are loaded, with one IN query.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PostSummaryDto> getHot(Long topicId, String cursor, int size) {
+        CursorPage<Long> ranked = hotRankingEngine.page(topicId, cursor, size);
+        if (ranked.getItems().isEmpty()) {
+            return new CursorPage<>(List.of(), ranked.getNextCursor(), ranked.isHasNext());
+        }
+
+        Map<Long, PostSummaryDto> byId = new HashMap<>();
+        for (PostSummaryDto dto : postRepository.findSummariesByIdIn(ranked.getItems())) {
+            byId.put(dto.getId(), dto);
+        }
+        // A post deleted since it was ranked is simply skipped.
+        List<PostSummaryDto> items = new ArrayList<>(ranked.getItems().size());
+        for (Long id : ranked.getItems()) {
+            PostSummaryDto dto = byId.get(id);
+            if (dto != null) {
+                applyPendingLikes(dto);
+                items.add(dto);
+            }
+        }
+        return new CursorPage<>(items, ranked.getNextCursor(), ranked.isHasNext());
     }
 
     @Transactional(readOnly = true)
@@ -85,17 +223,24 @@ public class PostService {
                 .orElseThrow(() -> new RuntimeException("Post not found with id: " + id));
     }
 
-    
-    @Transactional(readOnly = true)
+
+    /**
+     * Served from PostDetailCache; only a miss runs the post projection and the comment fetch.
+     * Runs outside a transaction so that cache hits, and callers waiting on another request's
+     * in-flight load, do not hold a pooled connection.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PostWithCommentsDto getPostWithComments(Long postId) {
-        
+        PostWithCommentsDto data = postDetailCache.get(postId, () -> loadPostWithComments(postId));
+        return withPendingLikes(data);
+    }
+
+    private PostWithCommentsDto loadPostWithComments(Long postId) {
         PostResponseDto postDto = postRepository.findProjectedById(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found with id: " + postId));
-        
-        
+
         var comments = commentService.getPostComments(postId);
 
-        
         return new PostWithCommentsDto(postDto, comments);
     }
     
@@ -104,30 +249,76 @@ public class PostService {
         if (post.getImageUrl() != null) {
             storageService.deleteFile(post.getImageUrl());
         }
+        topicRepository.adjustPostCountOfPost(postId, -1);
         postRepository.delete(post);
+        timelineService.onPostDeleted(postId);
+        postDetailCache.evict(postId);
+        commentTreeCache.evict(postId);
+        hotRankingEngine.onPostDeleted(postId);
     }
 
+    /**
+     * In write-behind mode the like is queued and acknowledged immediately (it is idempotent,
+     * so "already liked" is not reported). Otherwise, or when the buffer is full, it is written now.
+     */
     public void likePost(Long postId, Long userId) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("Post not found"));
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        if (post.getLikedByUsers().contains(user)) {
+        if (likeWriteBuffer.offer(postId, userId, true)) {
+            return;
+        }
+        if (!postLikeEngine.like(postId, userId)) {
+            // Slow path only: work out which of the two no-op cases we hit.
+            if (!postRepository.existsById(postId)) {
+                throw new RuntimeException("Post not found");
+            }
             throw new RuntimeException("Already liked");
         }
-        post.getLikedByUsers().add(user);
-        postRepository.save(post);
+        postDetailCache.evict(postId);
     }
 
     public void unlikePost(Long postId, Long userId) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("Post not found"));
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        if (!post.getLikedByUsers().contains(user)) {
+        if (likeWriteBuffer.offer(postId, userId, false)) {
+            return;
+        }
+        if (!postLikeEngine.unlike(postId, userId)) {
+            if (!postRepository.existsById(postId)) {
+                throw new RuntimeException("Post not found");
+            }
             throw new RuntimeException("Not liked yet");
         }
-        post.getLikedByUsers().remove(user);
-        postRepository.save(post);
+        postDetailCache.evict(postId);
+    }
+
+    // Cached DTOs are shared between requests, so the overlay is applied to a copy.
+    private PostWithCommentsDto withPendingLikes(PostWithCommentsDto data) {
+        if (!likeWriteBuffer.isEnabled() || likeWriteBuffer.pendingLikeDelta(data.getPost().getId()) == 0) {
+            return data;
+        }
+        PostResponseDto post = data.getPost();
+        PostResponseDto copy = new PostResponseDto(post.getId(), post.getContent(), post.getTitle(),
+                post.getAuthorName(), post.getTopicName(), post.getImageUrl(), post.getMediaType(),
+                post.getCreatedAt(), post.getLikesCount(), post.getCommentsCount());
+        applyPendingLikes(copy);
+        return new PostWithCommentsDto(copy, data.getComments());
+    }
+
+    // Adds likes still sitting in the write-behind buffer to the stored counter.
+    private void applyPendingLikes(PostResponseDto dto) {
+        if (!likeWriteBuffer.isEnabled()) {
+            return;
+        }
+        int delta = likeWriteBuffer.pendingLikeDelta(dto.getId());
+        if (delta != 0) {
+            dto.setLikesCount(Math.max(0, dto.getLikesCount() + delta));
+        }
+    }
+
+    private void applyPendingLikes(PostSummaryDto dto) {
+        if (!likeWriteBuffer.isEnabled()) {
+            return;
+        }
+        int delta = likeWriteBuffer.pendingLikeDelta(dto.getId());
+        if (delta != 0) {
+            dto.setLikesCount(Math.max(0, dto.getLikesCount() + delta));
+        }
     }
 }
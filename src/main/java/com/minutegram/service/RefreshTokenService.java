@@ -0,0 +1,213 @@
+package com.minutegram.service;
+
+import com.minutegram.dto.AuthTokens;
+import com.minutegram.dto.JwtService;
+import com.minutegram.dto.SessionDto;
+import com.minutegram.dto.VerifiedToken;
+import com.minutegram.entity.RefreshSession;
+import com.minutegram.entity.User;
+import com.minutegram.repository.RefreshSessionRepository;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Per-device sessions behind short-lived access tokens.
+ *
+ * Login opens a session and returns an access token (valid for jwt.expiration, a few minutes)
+ * plus an opaque refresh token. Refreshing rotates the refresh token: the old one stops working
+ * and presenting it again ends the session, since only a copy of a stolen token can be replayed.
+ * Each refresh moves the session's expiry forward by refreshTokenTtl, but never past
+ * sessionMaxAge after login, so a session that keeps refreshing still ends.
+ *
+ * Signing out one device ends only that session and revokes the last access token issued to it
+ * (TokenManagementService), so revocation state only has to cover access tokens for their few
+ * minutes of life.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final int DEVICE_NAME_MAX_LENGTH = 255;
+
+    private final RefreshSessionRepository refreshSessionRepository;
+    private final JwtService jwtService;
+    private final TokenManagementService tokenManagementService;
+    private final Duration refreshTokenTtl;
+    private final Duration sessionMaxAge;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshSessionRepository refreshSessionRepository,
+                               JwtService jwtService,
+                               TokenManagementService tokenManagementService,
+                               @Value("${minutegram.auth.refresh-token-ttl-days:30}") long refreshTokenTtlDays,
+                               @Value("${minutegram.auth.session-max-age-days:90}") long sessionMaxAgeDays) {
+        this.refreshSessionRepository = refreshSessionRepository;
+        this.jwtService = jwtService;
+        this.tokenManagementService = tokenManagementService;
+        this.refreshTokenTtl = Duration.ofDays(refreshTokenTtlDays);
+        this.sessionMaxAge = Duration.ofDays(sessionMaxAgeDays);
+    }
+
+    @Transactional
+    public AuthTokens startSession(User user, String deviceName) {
+        String refreshToken = newRefreshToken();
+        RefreshSession session = new RefreshSession();
+        session.setUser(user);
+        session.setTokenHash(JwtService.hash(refreshToken));
+        session.setDeviceName(truncate(deviceName));
+        session.setExpiresAt(expiryAfterUse(session.getCreatedAt(), session.getCreatedAt()));
+        RefreshSession saved = refreshSessionRepository.save(session);
+        // The session id goes into the token, so the token is recorded on the saved (managed) row.
+        String accessToken = accessToken(user, saved.getId());
+        VerifiedToken issued = jwtService.verify(accessToken);
+        saved.setAccessTokenId(issued.getTokenId());
+        saved.setAccessTokenExpiresAt(issued.getExpiresAt());
+        return new AuthTokens(accessToken, refreshToken, jwtService.getExpirationSeconds());
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token.
+     *
+     * @return Empty if the token is unknown, expired, already used or belongs to a banned user.
+     */
+    @Transactional
+    public Optional<AuthTokens> refresh(String refreshToken) {
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            return Optional.empty();
+        }
+        String hash = JwtService.hash(refreshToken);
+        Optional<RefreshSession> found = refreshSessionRepository.findByTokenHashWithUser(hash);
+        if (found.isEmpty()) {
+            // A rotated-out token being replayed: end the session so the copy holder is signed out too.
+            refreshSessionRepository.findIdByPreviousTokenHash(hash).ifPresent(id -> {
+                refreshSessionRepository.deleteSession(id);
+                System.out.println("Refresh token reuse detected, session ended: " + id);
+            });
+            return Optional.empty();
+        }
+        RefreshSession session = found.get();
+        User user = session.getUser();
+        Instant now = Instant.now();
+        if (!session.getExpiresAt().isAfter(now) || user.isBanned()) {
+            refreshSessionRepository.deleteSession(session.getId());
+            return Optional.empty();
+        }
+        String rotated = newRefreshToken();
+        String accessToken = accessToken(user, session.getId());
+        VerifiedToken issued = jwtService.verify(accessToken);
+        if (refreshSessionRepository.rotate(session.getId(), hash, JwtService.hash(rotated), now,
+                expiryAfterUse(session.getCreatedAt(), now), issued.getTokenId(), issued.getExpiresAt()) == 0) {
+            // Another request rotated this token first; the access token minted above is never handed out.
+            return Optional.empty();
+        }
+        return Optional.of(new AuthTokens(accessToken, rotated, jwtService.getExpirationSeconds()));
+    }
+
+    /**
+     * Ends the session that issued the access token and, when given, the one the refresh token
+     * belongs to. Invalid or expired tokens are ignored.
+     */
+    @Transactional
+    public void endSession(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            try {
+                VerifiedToken verified = jwtService.verify(accessToken);
+                if (verified.getSessionId() != null) {
+                    refreshSessionRepository.deleteSession(verified.getSessionId());
+                }
+            } catch (JwtException e) {
+                // Expired access token; the refresh token (if sent) still identifies the session.
+            }
+        }
+        if (refreshToken != null && !refreshToken.isEmpty()) {
+            refreshSessionRepository.findByTokenHashWithUser(JwtService.hash(refreshToken))
+                    .ifPresent(session -> refreshSessionRepository.deleteSession(session.getId()));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<SessionDto> getSessions(Long userId) {
+        return refreshSessionRepository.findSessionsByUserId(userId);
+    }
+
+    /**
+     * Ends the session and revokes the access token it last issued, as logout does for the
+     * token it is called with.
+     *
+     * @return false if the user has no such session.
+     */
+    @Transactional
+    public boolean revokeSession(Long userId, Long sessionId) {
+        Optional<RefreshSession> session = refreshSessionRepository.findSessionOfUser(sessionId, userId);
+        if (session.isEmpty() || refreshSessionRepository.deleteSessionOfUser(sessionId, userId) == 0) {
+            return false;
+        }
+        revokeAccessToken(session.get());
+        return true;
+    }
+
+    /**
+     * Signs the user out everywhere, including their current access tokens, e.g. on a ban.
+     */
+    @Transactional
+    public void revokeAllSessions(Long userId) {
+        List<RefreshSession> sessions = refreshSessionRepository.findAllOfUser(userId);
+        refreshSessionRepository.deleteAllOfUser(userId);
+        sessions.forEach(this::revokeAccessToken);
+    }
+
+    @Scheduled(initialDelayString = "${minutegram.auth.session-purge-interval-ms:3600000}",
+               fixedDelayString = "${minutegram.auth.session-purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = refreshSessionRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            System.out.println("Purged expired refresh sessions: " + purged);
+        }
+    }
+
+    // Slides forward from the last use, capped at the session's absolute lifetime.
+    private Instant expiryAfterUse(Instant createdAt, Instant usedAt) {
+        Instant sliding = usedAt.plus(refreshTokenTtl);
+        Instant absolute = createdAt.plus(sessionMaxAge);
+        return sliding.isBefore(absolute) ? sliding : absolute;
+    }
+
+    private void revokeAccessToken(RefreshSession session) {
+        if (session.getAccessTokenId() != null && session.getAccessTokenExpiresAt() != null) {
+            tokenManagementService.revoke(session.getAccessTokenId(), session.getAccessTokenExpiresAt());
+        }
+    }
+
+    private String accessToken(User user, Long sessionId) {
+        List<GrantedAuthority> authorities = user.getRoles().stream()
+                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.name()))
+                .collect(Collectors.toList());
+        return jwtService.generateToken(user.getId(), user.getName(), user.getEmail(), sessionId, authorities);
+    }
+
+    private String newRefreshToken() {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String truncate(String deviceName) {
+        if (deviceName == null || deviceName.length() <= DEVICE_NAME_MAX_LENGTH) {
+            return deviceName;
+        }
+        return deviceName.substring(0, DEVICE_NAME_MAX_LENGTH);
+    }
+}
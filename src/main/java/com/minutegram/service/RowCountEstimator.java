@@ -0,0 +1,63 @@
+package com.minutegram.service;
+
+import com.minutegram.dto.CountMode;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Table row counts from PostgreSQL's planner statistics (pg_class.reltuples) instead of COUNT(*).
+ * The estimate is refreshed by autovacuum/ANALYZE, so it is close but not exact; good enough
+ * for "page 3 of ~1,240" in the admin panel, and it costs one catalog lookup regardless of table size.
+ */
+@Service
+public class RowCountEstimator {
+
+    private static final String ESTIMATE_SQL =
+            "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RowCountEstimator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return The estimated row count, or -1 if the table is unknown or has never been analyzed.
+     */
+    public long estimate(String table) {
+        try {
+            List<Long> rows = jdbcTemplate.queryForList(ESTIMATE_SQL, Long.class, table);
+            return rows.isEmpty() || rows.get(0) == null ? -1 : rows.get(0);
+        } catch (RuntimeException e) {
+            System.out.println("Row estimate for " + table + " failed: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Runs a paged listing in the requested count mode.
+     * APPROXIMATE falls back to the exact count when the listing is filtered (a whole-table estimate
+     * says nothing about the matching rows) or when no estimate is available yet.
+     *
+     * @param exact the listing with its COUNT query
+     * @param slice the same listing without a count, fetching size + 1 rows
+     */
+    public <T> Page<T> page(CountMode mode, Pageable pageable, String table, boolean filtered,
+                            Supplier<Page<T>> exact, Supplier<Slice<T>> slice) {
+        long estimate = mode == CountMode.APPROXIMATE && !filtered ? estimate(table) : -1;
+        if (estimate <= 0) {
+            return exact.get();
+        }
+        Slice<T> rows = slice.get();
+        // Never report fewer rows than the pages the client has provably seen.
+        long seen = pageable.getOffset() + rows.getNumberOfElements() + (rows.hasNext() ? 1 : 0);
+        return new PageImpl<>(rows.getContent(), pageable, Math.max(estimate, seen));
+    }
+}
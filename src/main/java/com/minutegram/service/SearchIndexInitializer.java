@@ -0,0 +1,72 @@
+package com.minutegram.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the PostgreSQL indexes Hibernate's schema update cannot express: pg_trgm GIN indexes,
+ * which let ILIKE '%term%' searches use an index instead of scanning the table.
+ *
+ * Indexes are built CONCURRENTLY so startup never blocks writes to a large table. A concurrent build
+ * that was interrupted leaves an invalid index behind; it is dropped and rebuilt on the next start.
+ */
+@Service
+public class SearchIndexInitializer {
+
+    // Index name -> CREATE statement.
+    private static final Map<String, String> TRIGRAM_INDEXES = new LinkedHashMap<>();
+
+    static {
+        TRIGRAM_INDEXES.put("idx_comment_content_trgm",
+                "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_comment_content_trgm ON comment USING gin (content gin_trgm_ops)");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public SearchIndexInitializer(JdbcTemplate jdbcTemplate,
+                                  @Value("${minutegram.search.trigram-indexes.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        } catch (RuntimeException e) {
+            // Needs the CREATE privilege on the database; searches still work, just without the index.
+            System.out.println("pg_trgm is not available, search indexes skipped: " + e.getMessage());
+            return;
+        }
+        TRIGRAM_INDEXES.forEach(this::ensureIndex);
+    }
+
+    private void ensureIndex(String name, String createStatement) {
+        try {
+            List<Boolean> valid = jdbcTemplate.queryForList(
+                    "SELECT indisvalid FROM pg_index WHERE indexrelid = to_regclass(?)", Boolean.class, name);
+            if (!valid.isEmpty() && Boolean.TRUE.equals(valid.get(0))) {
+                return;
+            }
+            if (!valid.isEmpty()) {
+                jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+            }
+            long start = System.currentTimeMillis();
+            jdbcTemplate.execute(createStatement);
+            System.out.println("Built search index " + name + " in " + (System.currentTimeMillis() - start) + " ms");
+        } catch (RuntimeException e) {
+            System.out.println("Building search index " + name + " failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.minutegram.service;
+
+import com.minutegram.dto.FeedCursor;
+import com.minutegram.dto.PostSummaryDto;
+import com.minutegram.exception.TopicNotFoundException;
+import com.minutegram.repository.PostRepository;
+import com.minutegram.repository.TimelineEntryRepository;
+import com.minutegram.repository.TopicRepository;
+import com.minutegram.repository.TopicSubscriptionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Topic subscriptions and the per-user home timeline.
+ *
+ * A new post is copied into the timeline_entry rows of every subscriber of its topic (fan-out on write),
+ * so reading the home feed is one range scan over (user_id, created_at, post_id). Topics with more than
+ * fanOutMaxSubscribers subscribers are not fanned out; their recent posts are merged in on read instead,
+ * which bounds the cost of a single post to fanOutMaxSubscribers inserted rows.
+ *
+ * Posts written while a topic was above the threshold were never fanned out. So that they do not vanish
+ * from home timelines when the topic drops back to fan-out, every subscription is seeded with the topic's
+ * latest backfillPosts posts, large topic or not, and the unsubscribe that brings the count down to the
+ * threshold seeds the timelines of all remaining subscribers the same way.
+ *
+ * Entries are removed with their post or topic. A scheduled trim keeps each timeline to its newest
+ * maxEntriesPerUser entries (older pages fall back to nothing, as they would for a new subscriber)
+ * and drops entries left behind by deleted users.
+ */
+@Service
+@Transactional
+public class TimelineService {
+
+    private static final Comparator<PostSummaryDto> NEWEST_FIRST = Comparator
+            .comparing(PostSummaryDto::getCreatedAt).reversed()
+            .thenComparing(Comparator.comparing(PostSummaryDto::getId).reversed());
+
+    private final TopicSubscriptionRepository subscriptionRepository;
+    private final TimelineEntryRepository timelineEntryRepository;
+    private final TopicRepository topicRepository;
+    private final PostRepository postRepository;
+    private final int fanOutMaxSubscribers;
+    private final int backfillPosts;
+    private final int maxEntriesPerUser;
+
+    public TimelineService(TopicSubscriptionRepository subscriptionRepository,
+                           TimelineEntryRepository timelineEntryRepository,
+                           TopicRepository topicRepository,
+                           PostRepository postRepository,
+                           @Value("${minutegram.timeline.fan-out-max-subscribers:5000}") int fanOutMaxSubscribers,
+                           @Value("${minutegram.timeline.backfill-posts:100}") int backfillPosts,
+                           @Value("${minutegram.timeline.max-entries-per-user:1000}") int maxEntriesPerUser) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.timelineEntryRepository = timelineEntryRepository;
+        this.topicRepository = topicRepository;
+        this.postRepository = postRepository;
+        this.fanOutMaxSubscribers = fanOutMaxSubscribers;
+        this.backfillPosts = backfillPosts;
+        this.maxEntriesPerUser = maxEntriesPerUser;
+    }
+
+    // --- Subscriptions ---
+
+    public void subscribe(Long userId, Long topicId) {
+        if (subscriptionRepository.insertSubscription(userId, topicId) == 0) {
+            if (!topicRepository.existsById(topicId)) {
+                throw new TopicNotFoundException("Topic not found with id: " + topicId);
+            }
+            throw new RuntimeException("Already subscribed");
+        }
+        // Also for large topics, which are merged on read for now but may drop back to fan-out later.
+        timelineEntryRepository.backfill(userId, topicId, backfillPosts);
+    }
+
+    public void unsubscribe(Long userId, Long topicId) {
+        if (subscriptionRepository.deleteSubscription(userId, topicId) == 0) {
+            throw new RuntimeException("Not subscribed");
+        }
+        timelineEntryRepository.deleteByUserIdAndTopicId(userId, topicId);
+        // The topic row stays locked by our decrement until commit, so exactly one unsubscribe sees
+        // the count land on the threshold: the topic switches from merge-on-read to fan-out here.
+        if (topicRepository.findSubscriberCountById(topicId) == fanOutMaxSubscribers) {
+            timelineEntryRepository.backfillSubscribers(topicId, backfillPosts);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> getSubscribedTopicIds(Long userId) {
+        return subscriptionRepository.findTopicIdsByUserId(userId);
+    }
+
+    // --- Write side ---
+
+    /**
+     * Called in the transaction that created the post. The topic's subscriber count is checked
+     * inside the fan-out statement, so the caller does not need to load the topic.
+     */
+    public void onPostCreated(Long postId, Long topicId, LocalDateTime createdAt) {
+        timelineEntryRepository.fanOut(postId, topicId, createdAt, fanOutMaxSubscribers);
+    }
+
+    public void onPostDeleted(Long postId) {
+        timelineEntryRepository.deleteByPostId(postId);
+    }
+
+    /**
+     * Must run before the topic row is deleted: subscriptions reference it.
+     */
+    public void onTopicDeleted(Long topicId) {
+        subscriptionRepository.deleteByTopicId(topicId);
+        timelineEntryRepository.deleteByTopicId(topicId);
+    }
+
+    @Scheduled(initialDelayString = "${minutegram.timeline.trim-interval-ms:3600000}",
+               fixedDelayString = "${minutegram.timeline.trim-interval-ms:3600000}")
+    public void trim() {
+        int orphans = timelineEntryRepository.deleteOrphans();
+        int trimmed = timelineEntryRepository.trimToNewest(maxEntriesPerUser);
+        if (orphans + trimmed > 0) {
+            System.out.println("Timeline trim removed " + trimmed + " old and " + orphans + " orphaned entries");
+        }
+    }
+
+    // --- Read side ---
+
+    /**
+     * Up to limit posts of the user's home timeline strictly after the cursor, newest first:
+     * the materialized timeline merged with the posts of subscribed merge-on-read topics.
+     */
+    @Transactional(readOnly = true)
+    public List<PostSummaryDto> loadHome(Long userId, FeedCursor after, int limit) {
+        Pageable page = PageRequest.of(0, limit);
+        List<PostSummaryDto> fannedOut = after == null
+                ? timelineEntryRepository.findHomeFirstPage(userId, page)
+                : timelineEntryRepository.findHomeAfter(userId, after.getCreatedAt(), after.getId(), page);
+
+        List<Long> mergeOnRead = subscriptionRepository.findMergeOnReadTopicIds(userId, fanOutMaxSubscribers);
+        if (mergeOnRead.isEmpty()) {
+            return fannedOut;
+        }
+        List<PostSummaryDto> pulled = after == null
+                ? postRepository.findTopicsFeedFirstPage(mergeOnRead, page)
+                : postRepository.findTopicsFeedAfter(mergeOnRead, after.getCreatedAt(), after.getId(), page);
+
+        // A topic that grew past the threshold still has older fanned-out entries; keep one copy.
+        List<PostSummaryDto> merged = new ArrayList<>(fannedOut.size() + pulled.size());
+        Set<Long> seen = new HashSet<>();
+        for (PostSummaryDto dto : fannedOut) {
+            if (seen.add(dto.getId())) {
+                merged.add(dto);
+            }
+        }
+        for (PostSummaryDto dto : pulled) {
+            if (seen.add(dto.getId())) {
+                merged.add(dto);
+            }
+        }
+        merged.sort(NEWEST_FIRST);
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+}
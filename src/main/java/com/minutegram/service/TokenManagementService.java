@@ -1,36 +1,125 @@
 package com.minutegram.service;
 
+import com.minutegram.dto.JwtService;
+import com.minutegram.dto.VerifiedToken;
+import com.minutegram.entity.RevokedToken;
+import com.minutegram.repository.RevokedTokenRepository;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Set;
+import java.time.Instant;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Revoked tokens, keyed by token id (jti) with the token's expiry.
+ *
+ * The set lives in memory for the per-request check and in the revoked_token table so it
+ * survives restarts. A revoked token only needs remembering until it expires, so expired
+ * entries are purged from both on a schedule and the set stays as small as the number of
+ * revoked tokens that could still validate. Access tokens live for minutes (sessions are
+ * renewed by RefreshTokenService), so that is only the last few minutes of logouts.
+ *
+ * Each revocation is also announced with NOTIFY so other instances add it to their set without
+ * a database read per request (see TokenRevocationListener).
+ */
 @Service
 public class TokenManagementService {
-    private final Set<String> blacklistedTokens = ConcurrentHashMap.newKeySet();
-    private final ConcurrentHashMap<String, String> userTokenMap = new ConcurrentHashMap<>();
 
-    public void saveUserToken(String email, String token){
-        String existingToken = userTokenMap.get(email);
-        if (existingToken != null){
-            blacklistedTokens.add(existingToken);
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${minutegram.tokens.revocation-notify.enabled:true}")
+    private boolean notifyEnabled;
+
+    // Token id -> expiry.
+    private final ConcurrentHashMap<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        for (RevokedToken revoked : revokedTokenRepository.findUnexpired(Instant.now())) {
+            revokedTokens.put(revoked.getTokenId(), revoked.getExpiresAt());
         }
-        userTokenMap.put(email, token);
+        System.out.println("Token revocations loaded: " + revokedTokens.size());
     }
 
-    public boolean isTokenBlacklisted(String token) {
-        return blacklistedTokens.contains(token);
+    /**
+     * A revocation announced by another instance; already stored by that instance.
+     */
+    public void onRemoteRevocation(String tokenId, Instant expiresAt) {
+        if (expiresAt.isAfter(Instant.now())) {
+            revokedTokens.putIfAbsent(tokenId, expiresAt);
+        }
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        return revokedTokens.containsKey(token.getTokenId());
     }
 
+    /**
+     * Revokes the token. A token that no longer verifies (expired or invalid) cannot be used
+     * anyway and is ignored.
+     */
     public void invalidateToken(String token) {
-        blacklistedTokens.add(token);
-        userTokenMap.values().remove(token);
+        VerifiedToken verified;
+        try {
+            verified = jwtService.verify(token);
+        } catch (JwtException e) {
+            return;
+        }
+        revoke(verified.getTokenId(), verified.getExpiresAt());
     }
 
-    public void invalidateUserTokens(String email) {
-        String token = userTokenMap.remove(email);
-        if (token != null) {
-            blacklistedTokens.add(token);
+    /**
+     * Revokes a token by id, for callers that know it without holding the token itself
+     * (e.g. the last access token issued to a signed-out session).
+     */
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (!expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        if (revokedTokens.putIfAbsent(tokenId, expiresAt) == null) {
+            revokedTokenRepository.save(new RevokedToken(tokenId, expiresAt));
+            announce(tokenId, expiresAt);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${minutegram.tokens.revocation-purge-interval-ms:600000}",
+               fixedDelayString = "${minutegram.tokens.revocation-purge-interval-ms:600000}")
+    @Transactional
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        revokedTokens.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        int purged = revokedTokenRepository.deleteExpired(now);
+        if (purged > 0) {
+            System.out.println("Purged expired token revocations: " + purged);
+        }
+        // Catches revocations whose notification this instance missed.
+        load();
+    }
+
+    private void announce(String tokenId, Instant expiresAt) {
+        if (!notifyEnabled) {
+            return;
+        }
+        try {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, TokenRevocationListener.CHANNEL,
+                    tokenId + ":" + expiresAt.getEpochSecond());
+        } catch (RuntimeException e) {
+            // The revocation is stored; other instances pick it up on their next purge or reconnect.
+            System.out.println("Could not announce token revocation: " + e.getMessage());
         }
     }
 }
@@ -0,0 +1,122 @@
+package com.minutegram.service;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+
+/**
+ * Applies revocations made on other instances. Every revocation is announced with
+ * NOTIFY token_revoked, 'tokenId:expiresAtEpochSecond'; this listener holds one dedicated
+ * connection (outside the pool) on LISTEN and adds each announced id to the local set, so
+ * the per-request check stays in memory and a logout reaches every node within the time
+ * PostgreSQL takes to deliver the notification.
+ *
+ * Notifications sent while the connection is down are lost, so after every (re)connect the
+ * revocations are reloaded from the revoked_token table.
+ */
+@Service
+public class TokenRevocationListener {
+
+    public static final String CHANNEL = "token_revoked";
+
+    private static final int POLL_TIMEOUT_MS = 500;
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    private final TokenManagementService tokenManagementService;
+    private final boolean enabled;
+    private final String url;
+    private final String username;
+    private final String password;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public TokenRevocationListener(TokenManagementService tokenManagementService,
+                                   @Value("${minutegram.tokens.revocation-notify.enabled:true}") boolean enabled,
+                                   @Value("${spring.datasource.url}") String url,
+                                   @Value("${spring.datasource.username:}") String username,
+                                   @Value("${spring.datasource.password:}") String password) {
+        this.tokenManagementService = tokenManagementService;
+        this.enabled = enabled;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::listen, "token-revocation-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Anything announced before LISTEN took effect is in the table.
+                tokenManagementService.load();
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        apply(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                System.out.println("Token revocation listener disconnected, retrying: " + e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Payload is "tokenId:expiresAtEpochSecond"; token ids never contain ':'.
+    void apply(String payload) {
+        int separator = payload.lastIndexOf(':');
+        if (separator <= 0) {
+            return;
+        }
+        try {
+            Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(payload.substring(separator + 1)));
+            tokenManagementService.onRemoteRevocation(payload.substring(0, separator), expiresAt);
+        } catch (NumberFormatException e) {
+            System.out.println("Ignoring malformed token revocation: " + payload);
+        }
+    }
+}
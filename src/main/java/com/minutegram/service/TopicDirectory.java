@@ -0,0 +1,173 @@
+package com.minutegram.service;
+
+import com.minutegram.dto.TopicNameDto;
+import com.minutegram.dto.TopicSuggestionDto;
+import com.minutegram.repository.TopicRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory topic name -> id map. Topics are few and never renamed, so post creation resolves
+ * the topic name here and attaches the topic as a reference instead of querying for it.
+ *
+ * Loaded at startup, kept current by topic create and delete, and reloaded in full on a schedule
+ * so topics deleted through another instance drop out. A name that is not in the map is looked
+ * up in the database before it is reported missing, so a topic created elsewhere (another
+ * instance, or a commit whose update has not run yet) is found on first use; a stale id is
+ * evicted as soon as a write finds its row gone (onTopicMissing).
+ *
+ * Also serves topic typeahead from a TopicPrefixIndex ranked by post count. Counts are bumped
+ * when a post is created here; the scheduled reload rebuilds the whole index from the topic
+ * table, which picks up names, deletes and posts made on other instances.
+ */
+@Service
+public class TopicDirectory {
+
+    private static final Comparator<TopicNameDto> BY_NAME =
+            Comparator.comparing(TopicNameDto::getName, String.CASE_INSENSITIVE_ORDER);
+
+    private static final int MAX_SUGGESTIONS = 25;
+
+    private final TopicRepository topicRepository;
+    private final Map<String, Long> idsByName = new ConcurrentHashMap<>();
+    private final Map<Long, String> namesById = new ConcurrentHashMap<>();
+    private final TopicPrefixIndex prefixIndex = new TopicPrefixIndex();
+
+    public TopicDirectory(TopicRepository topicRepository) {
+        this.topicRepository = topicRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+        System.out.println("Topic directory loaded: " + namesById.size() + " topics");
+    }
+
+    @Scheduled(initialDelayString = "${minutegram.topics.directory.refresh-interval-ms:60000}",
+               fixedDelayString = "${minutegram.topics.directory.refresh-interval-ms:60000}")
+    public void refresh() {
+        reload();
+    }
+
+    // A topic created between the query and the removal below is dropped from list() until the
+    // next reload; resolve() still finds it through the database fallback.
+    private synchronized void reload() {
+        Map<Long, String> names = new HashMap<>();
+        Map<Long, Integer> postCounts = new HashMap<>();
+        for (Object[] row : topicRepository.findAllIdsNamesAndPostCounts()) {
+            Long id = ((Number) row[0]).longValue();
+            names.put(id, (String) row[1]);
+            postCounts.put(id, ((Number) row[2]).intValue());
+        }
+        names.forEach((id, name) -> {
+            idsByName.put(name, id);
+            namesById.put(id, name);
+        });
+        namesById.keySet().retainAll(names.keySet());
+        idsByName.values().removeIf(id -> !names.containsKey(id));
+        prefixIndex.load(names, postCounts);
+    }
+
+    /**
+     * @return The id of the topic with exactly this name, or empty if there is none.
+     */
+    public Optional<Long> resolve(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        Long id = idsByName.get(name);
+        if (id != null) {
+            return Optional.of(id);
+        }
+        Optional<Long> loaded = topicRepository.findIdByName(name);
+        loaded.ifPresent(found -> put(found, name));
+        return loaded;
+    }
+
+    /**
+     * All topics, sorted by name.
+     */
+    public List<TopicNameDto> list() {
+        List<TopicNameDto> topics = new ArrayList<>(namesById.size());
+        namesById.forEach((id, name) -> topics.add(new TopicNameDto(id, name)));
+        topics.sort(BY_NAME);
+        return topics;
+    }
+
+    /**
+     * Typeahead over topic names: topics with a word starting with the prefix (ignoring case and
+     * accents), most posts first.
+     */
+    public List<TopicSuggestionDto> suggest(String prefix, int limit) {
+        return prefixIndex.suggest(prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    /**
+     * Counts the post toward the topic's typeahead rank once the creating transaction commits.
+     */
+    public void onPostCreated(Long topicId) {
+        afterCommit(() -> prefixIndex.adjustPostCount(topicId, 1));
+    }
+
+    /**
+     * Publishes the topic once the creating transaction commits.
+     */
+    public void onTopicCreated(Long id, String name) {
+        afterCommit(() -> put(id, name));
+    }
+
+    /**
+     * Removes the topic now, so no new posts resolve to it, and again after commit in case a
+     * concurrent resolve re-read it from the database before the delete was visible.
+     */
+    public void onTopicDeleted(Long id) {
+        remove(id);
+        afterCommit(() -> remove(id));
+    }
+
+    /**
+     * Called when a write finds the topic row gone although the directory still resolved it.
+     */
+    public void onTopicMissing(Long id) {
+        remove(id);
+    }
+
+    private void put(Long id, String name) {
+        idsByName.put(name, id);
+        namesById.put(id, name);
+        prefixIndex.add(id, name, 0);
+    }
+
+    private void remove(Long id) {
+        String name = namesById.remove(id);
+        if (name != null) {
+            idsByName.remove(name, id);
+        }
+        prefixIndex.remove(id);
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
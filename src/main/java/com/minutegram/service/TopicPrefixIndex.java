@@ -0,0 +1,171 @@
+package com.minutegram.service;
+
+import com.minutegram.dto.TopicSuggestionDto;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Sorted array of normalized topic name keys, searched by binary search for a prefix.
+ * Every word of a name is a key, so "jav" finds both "Java" and "Learning Java".
+ *
+ * Readers use the current array without locking; add and remove build a new array by merging
+ * into or filtering the old one, so a change costs one copy and never a re-sort.
+ */
+final class TopicPrefixIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Comparator<Key> KEY_ORDER =
+            Comparator.comparing(Key::text).thenComparingLong(Key::topicId);
+
+    // Most posts first, then by name.
+    private static final Comparator<TopicSuggestionDto> RANK =
+            Comparator.comparingInt(TopicSuggestionDto::getPostCount).reversed()
+                    .thenComparing(TopicSuggestionDto::getName, String.CASE_INSENSITIVE_ORDER)
+                    .thenComparing(TopicSuggestionDto::getId);
+
+    private record Key(String text, long topicId) {}
+
+    private volatile Key[] keys = new Key[0];
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> postCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Lower case, accents removed, and every run of other characters turned into one space.
+     */
+    static String normalize(String name) {
+        String decomposed = MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(decomposed.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Replaces the whole index; used for the startup load.
+     */
+    synchronized void load(Map<Long, String> topicNames, Map<Long, Integer> topicPostCounts) {
+        names.clear();
+        postCounts.clear();
+        List<Key> loaded = new ArrayList<>();
+        topicNames.forEach((id, name) -> {
+            names.put(id, name);
+            postCounts.put(id, topicPostCounts.getOrDefault(id, 0));
+            loaded.addAll(keysOf(id, name));
+        });
+        Key[] sorted = loaded.toArray(new Key[0]);
+        Arrays.sort(sorted, KEY_ORDER);
+        keys = sorted;
+    }
+
+    synchronized void add(long id, String name, int postCount) {
+        if (name.equals(names.get(id))) {
+            return;
+        }
+        // A rename keeps the known count.
+        int count = postCounts.getOrDefault(id, postCount);
+        if (names.containsKey(id)) {
+            remove(id);
+        }
+        names.put(id, name);
+        postCounts.put(id, count);
+        List<Key> added = keysOf(id, name);
+        added.sort(KEY_ORDER);
+        keys = merge(keys, added);
+    }
+
+    synchronized void remove(long id) {
+        if (names.remove(id) == null) {
+            return;
+        }
+        postCounts.remove(id);
+        keys = Arrays.stream(keys).filter(key -> key.topicId() != id).toArray(Key[]::new);
+    }
+
+    void adjustPostCount(long id, int delta) {
+        postCounts.computeIfPresent(id, (topicId, count) -> Math.max(0, count + delta));
+    }
+
+    /**
+     * @return Up to limit topics with a word starting with the prefix, most posts first.
+     *         An empty prefix ranks every topic.
+     */
+    List<TopicSuggestionDto> suggest(String prefix, int limit) {
+        String normalized = prefix == null ? "" : normalize(prefix);
+        Key[] snapshot = keys;
+        PriorityQueue<TopicSuggestionDto> top = new PriorityQueue<>(limit + 1, RANK.reversed());
+        Set<Long> seen = new HashSet<>();
+        for (int i = lowerBound(snapshot, normalized); i < snapshot.length && snapshot[i].text().startsWith(normalized); i++) {
+            long id = snapshot[i].topicId();
+            String name = names.get(id);
+            if (name == null || !seen.add(id)) {
+                continue;
+            }
+            top.add(new TopicSuggestionDto(id, name, postCounts.getOrDefault(id, 0)));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<TopicSuggestionDto> ranked = new ArrayList<>(top);
+        ranked.sort(RANK);
+        return ranked;
+    }
+
+    int size() {
+        return names.size();
+    }
+
+    private static List<Key> keysOf(long id, String name) {
+        String normalized = normalize(name);
+        List<Key> result = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return result;
+        }
+        result.add(new Key(normalized, id));
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            result.add(new Key(normalized.substring(i + 1), id));
+        }
+        return result;
+    }
+
+    // First position whose key is not less than the prefix.
+    private static int lowerBound(Key[] sorted, String prefix) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].text().compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static Key[] merge(Key[] current, List<Key> added) {
+        Key[] merged = new Key[current.length + added.size()];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < current.length && j < added.size()) {
+            merged[k++] = KEY_ORDER.compare(current[i], added.get(j)) <= 0 ? current[i++] : added.get(j++);
+        }
+        while (i < current.length) {
+            merged[k++] = current[i++];
+        }
+        while (j < added.size()) {
+            merged[k++] = added.get(j++);
+        }
+        return merged;
+    }
+}
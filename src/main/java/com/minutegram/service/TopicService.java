@@ -1,21 +1,34 @@
 package com.minutegram.service;
 
-import com.minutegram.dto.PostResponseDto;
+import com.minutegram.cache.CacheRegistry;
+import com.minutegram.cache.SingleFlight;
+import com.minutegram.dto.PostSummaryDto;
 import com.minutegram.dto.TopicCreateDto;
 import com.minutegram.dto.TopicDto;
+import com.minutegram.dto.TopicNameDto;
+import com.minutegram.dto.TopicSuggestionDto;
 import com.minutegram.dto.TopicWithPostsDto;
 import com.minutegram.entity.Topic;
-import com.minutegram.entity.User;
+import com.minutegram.exception.InvalidInputException;
 import com.minutegram.exception.TopicAlreadyExistsException;
 import com.minutegram.exception.TopicNotFoundException;
 import com.minutegram.repository.PostRepository;
 import com.minutegram.repository.TopicRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
+import jakarta.annotation.PostConstruct;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 @Transactional
 public class TopicService {
@@ -28,16 +41,59 @@ public class TopicService {
     @Autowired
     private PostRepository postRepository;
 
-    public Topic createTopic(TopicCreateDto topicDto) {
-        User currentUser = userService.getCurrentUser();
-        if (topicRepository.existsByName(topicDto.getName())) {
+    @Autowired
+    private CacheRegistry cacheRegistry;
+
+    @Autowired
+    private TopicDirectory topicDirectory;
+
+    // Collapses concurrent loads of the same topic page (same id, page, size and sort).
+    private SingleFlight<String, TopicWithPostsDto> topicPageFlight;
+
+    @PostConstruct
+    void registerSingleFlight() {
+        topicPageFlight = cacheRegistry.register(new SingleFlight<>("topic-page"));
+    }
+
+    /**
+     * The creator is attached as a reference and the response is built from the token's
+     * id and name claims, so no user row is read. The directory check catches the common case;
+     * a concurrent create of the same name is caught by the unique constraint on name.
+     */
+    public TopicDto createTopic(TopicCreateDto topicDto) {
+        Long creatorId = userService.getCurrentUserId();
+        if (topicDirectory.resolve(topicDto.getName()).isPresent()) {
             throw new TopicAlreadyExistsException("Topic with this name already exists");
         }
         Topic topic = new Topic();
         topic.setName(topicDto.getName());
         topic.setDescription(topicDto.getDescription());
-        topic.setCreator(currentUser);
-        return topicRepository.save(topic);
+        topic.setCreator(userService.getCurrentUserReference());
+        Topic saved;
+        try {
+            saved = topicRepository.saveAndFlush(topic);
+        } catch (DataIntegrityViolationException e) {
+            throw new TopicAlreadyExistsException("Topic with this name already exists");
+        }
+        topicDirectory.onTopicCreated(saved.getId(), saved.getName());
+        return new TopicDto(saved.getId(), saved.getName(), saved.getDescription(), saved.getCreatedAt(),
+                creatorId, userService.getCurrentUserName(), 0, saved.getLastPostAt());
+    }
+
+    /**
+     * Every topic's id and name, served from TopicDirectory without a query.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<TopicNameDto> getTopicNames() {
+        return topicDirectory.list();
+    }
+
+    /**
+     * Topic picker typeahead, served from TopicDirectory without a query.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<TopicSuggestionDto> suggestTopics(String prefix, int limit) {
+        return topicDirectory.suggest(prefix, limit);
     }
 
     @Transactional(readOnly = true)
@@ -45,21 +101,68 @@ public class TopicService {
         return topicRepository.findAllProjected(pageable);
     }
 
-    
     @Transactional(readOnly = true)
+    public Slice<TopicDto> getAllTopicsSlice(Pageable pageable) {
+        return topicRepository.findSliceProjected(pageable);
+    }
+
+    /**
+     * Maps a topic list sort key to a Sort for the topic list queries (alias t).
+     * "activity" = most recent post first, "posts" = most posts first, "newest" = newest topic first;
+     * empty keeps the unsorted listing. "activity" sorts on an expression, which no index serves;
+     * topics are few, so that is a small top-N sort.
+     */
+    public static Sort topicSort(String key) {
+        switch (key) {
+            case "":
+                return Sort.unsorted();
+            case "activity":
+                // last_post_at is NULL on rows older than the column until the startup backfill has run.
+                return JpaSort.unsafe(Sort.Direction.DESC, "COALESCE(t.lastPostAt, t.createdAt)", "t.id");
+            case "posts":
+                return Sort.by(Sort.Order.desc("postCount"), Sort.Order.desc("id"));
+            case "newest":
+                return Sort.by(Sort.Order.desc("id"));
+            default:
+                throw new InvalidInputException("Unsupported topic sort: " + key);
+        }
+    }
+
+    /**
+     * Identical concurrent requests share one load. Runs outside a transaction so waiting
+     * callers do not hold a pooled connection; each query runs in its own read-only transaction.
+     * @param pageable carries a Sort from postSort
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public TopicWithPostsDto getTopicWithPosts(Long topicId, Pageable pageable) {
-        // Step 1: Get the topic DTO
+        String key = topicId + "|" + pageable.getPageNumber() + "|" + pageable.getPageSize() + "|" + pageable.getSort();
+        return topicPageFlight.load(key, () -> loadTopicWithPosts(topicId, pageable));
+    }
+
+    // Two queries, both keyed by topic id: the header, then the page of posts. The page total is
+    // the header's denormalized postCount, so no COUNT over the topic's posts is needed.
+    private TopicWithPostsDto loadTopicWithPosts(Long topicId, Pageable pageable) {
         TopicDto topicDto = topicRepository.findProjectedById(topicId)
                 .orElseThrow(() -> new TopicNotFoundException("Topic not found with id: " + topicId));
-        
-        // Step 2: Get the posts for that topic
-        // We need the Topic *entity* for the repository query
-        Topic topicEntity = topicRepository.findById(topicId)
-                .orElseThrow(() -> new TopicNotFoundException("Topic not found with id: " + topicId));
-        Page<PostResponseDto> postsPage = postRepository.findAllProjectedByTopic(topicEntity, pageable);
+        List<PostSummaryDto> posts = postRepository.findProjectedByTopicId(topicId, pageable);
+        return new TopicWithPostsDto(topicDto, new PageImpl<>(posts, pageable, topicDto.getPostCount()));
+    }
 
-        // Step 3: Combine and return
-        return new TopicWithPostsDto(topicDto, postsPage);
+    /**
+     * Maps a topic page sort key to an index-backed Sort. Accepts "newest" and "popular", and the
+     * "createdAt,desc" / "likesCount,desc" strings older clients send.
+     */
+    public static Sort postSort(String key) {
+        switch (key) {
+            case "newest":
+            case "createdAt,desc":
+                return PostService.NEWEST_FIRST;
+            case "popular":
+            case "likesCount,desc":
+                return Sort.by(Sort.Order.desc("likeCount"), Sort.Order.desc("id"));
+            default:
+                throw new InvalidInputException("Unsupported post sort: " + key);
+        }
     }
 
     @Transactional(readOnly = true)
@@ -70,9 +173,18 @@ public class TopicService {
     
     // This is kept for backwards compatibility or other uses, but the new endpoint is better.
     @Transactional(readOnly = true)
-    public Page<PostResponseDto> getTopicPosts(Long topicId, Pageable pageable) {
-        Topic topic = topicRepository.findById(topicId)
-                .orElseThrow(() -> new RuntimeException("Topic not found: " + topicId));
-        return postRepository.findAllProjectedByTopic(topic, pageable);
+    public Page<PostSummaryDto> getTopicPosts(Long topicId, Pageable pageable) {
+        if (!topicRepository.existsById(topicId)) {
+            throw new RuntimeException("Topic not found: " + topicId);
+        }
+        return postRepository.findAllProjectedByTopicId(topicId, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<PostSummaryDto> getTopicPostsSlice(Long topicId, Pageable pageable) {
+        if (!topicRepository.existsById(topicId)) {
+            throw new TopicNotFoundException("Topic not found with id: " + topicId);
+        }
+        return postRepository.findSliceProjectedByTopicId(topicId, pageable);
     }
 }
@@ -1,8 +1,11 @@
 package com.minutegram.service;
 
+import com.minutegram.dto.AuthenticatedUser;
+import com.minutegram.dto.SecurityUser;
 import com.minutegram.entity.User;
 import com.minutegram.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
@@ -12,9 +15,51 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    /**
+     * Loads the full user (with roles). Write paths that only need to attach the user or read
+     * its id should use getCurrentUserReference / getCurrentUserId instead.
+     */
     public User getCurrentUser(){
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("user not found: " + email));
     }
+
+    /**
+     * The current user's id, read from the token's uid claim. Only tokens issued before the
+     * claim existed fall back to a query (for the id alone).
+     */
+    public Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof AuthenticatedUser user && user.getId() != null) {
+            return user.getId();
+        }
+        if (principal instanceof SecurityUser user) {
+            return user.getId();
+        }
+        String email = authentication.getName();
+        return userRepository.findIdByEmail(email)
+                .orElseThrow(() -> new RuntimeException("user not found: " + email));
+    }
+
+    /**
+     * The current user as an uninitialized reference, for setting an owner on a new row
+     * without selecting the user.
+     */
+    public User getCurrentUserReference() {
+        return userRepository.getReferenceById(getCurrentUserId());
+    }
+
+    /**
+     * The current user's display name from the token's name claim, or from the database for
+     * older tokens.
+     */
+    public String getCurrentUserName() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user && user.getDisplayName() != null) {
+            return user.getDisplayName();
+        }
+        return getCurrentUser().getName();
+    }
 }
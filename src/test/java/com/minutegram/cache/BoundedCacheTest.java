@@ -0,0 +1,88 @@
+package com.minutegram.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    @Test
+    void get_AfterPut_ShouldHit() {
+        BoundedCache<Long, String> cache = new BoundedCache<>("test", 10, Duration.ofMinutes(1));
+        cache.put(1L, "one", cache.loadStamp());
+
+        assertEquals("one", cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals(1, cache.stats().getHits());
+        assertEquals(1, cache.stats().getMisses());
+    }
+
+    @Test
+    void put_BeyondMaxSize_ShouldEvictLeastRecentlyUsed() {
+        BoundedCache<Long, String> cache = new BoundedCache<>("test", 2, Duration.ofMinutes(1));
+        cache.put(1L, "one", cache.loadStamp());
+        cache.put(2L, "two", cache.loadStamp());
+        cache.get(1L); // 2 is now the eldest
+        cache.put(3L, "three", cache.loadStamp());
+
+        assertEquals("one", cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals("three", cache.get(3L));
+        assertEquals(1, cache.stats().getEvictions());
+    }
+
+    @Test
+    void get_AfterTtl_ShouldMiss() {
+        BoundedCache<Long, String> cache = new BoundedCache<>("test", 10, Duration.ZERO);
+        cache.put(1L, "one", cache.loadStamp());
+
+        assertNull(cache.get(1L));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_WhenInvalidatedDuringLoad_ShouldBeDropped() {
+        BoundedCache<Long, String> cache = new BoundedCache<>("test", 10, Duration.ofMinutes(1));
+        long stamp = cache.loadStamp();
+        cache.invalidate(1L); // a writer commits while the reader is still loading
+        cache.put(1L, "stale", stamp);
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void put_WhenOtherKeyInvalidatedDuringLoad_ShouldBeKept() {
+        BoundedCache<Long, String> cache = new BoundedCache<>("test", 10, Duration.ofMinutes(1));
+        long stamp = cache.loadStamp();
+        cache.invalidate(2L);
+        cache.put(1L, "one", stamp);
+
+        assertEquals("one", cache.get(1L));
+    }
+
+    @Test
+    void put_WhenAllInvalidatedDuringLoad_ShouldBeDropped() {
+        BoundedCache<Long, String> cache = new BoundedCache<>("test", 10, Duration.ofMinutes(1));
+        long stamp = cache.loadStamp();
+        cache.invalidateAll();
+        cache.put(1L, "stale", stamp);
+
+        assertNull(cache.get(1L));
+        cache.put(1L, "fresh", cache.loadStamp());
+        assertEquals("fresh", cache.get(1L));
+    }
+
+    @Test
+    void isCurrent_ShouldTurnFalseOnlyWhenKeyInvalidatedAfterStamp() {
+        BoundedCache<Long, String> cache = new BoundedCache<>("test", 10, Duration.ofMinutes(1));
+        long stamp = cache.loadStamp();
+        cache.invalidate(2L);
+
+        assertTrue(cache.isCurrent(1L, stamp));
+        cache.invalidate(1L);
+        assertFalse(cache.isCurrent(1L, stamp));
+        assertTrue(cache.isCurrent(1L, cache.loadStamp()));
+    }
+}
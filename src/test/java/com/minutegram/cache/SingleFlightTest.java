@@ -0,0 +1,72 @@
+package com.minutegram.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void load_ConcurrentCallersForSameKey_ShouldShareOneLoad() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test");
+        AtomicInteger loaderRuns = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.load(1L, () -> {
+                loaderRuns.incrementAndGet();
+                loaderStarted.countDown();
+                await(release);
+                return "post-1";
+            }));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+
+            Future<String> follower = executor.submit(() -> singleFlight.load(1L, () -> {
+                loaderRuns.incrementAndGet();
+                return "duplicate";
+            }));
+            // Give the follower time to join the in-flight load before releasing it.
+            while (singleFlight.stats().getCollapsed() == 0) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertEquals("post-1", leader.get(5, TimeUnit.SECONDS));
+            assertEquals("post-1", follower.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loaderRuns.get());
+            assertEquals(2, singleFlight.stats().getCalls());
+            assertEquals(1, singleFlight.stats().getCollapsed());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void load_WhenLoaderFails_ShouldPropagateAndAllowRetry() {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test");
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> singleFlight.load(1L, () -> { throw new RuntimeException("Post not found"); }));
+        assertEquals("Post not found", error.getMessage());
+
+        assertEquals("ok", singleFlight.load(1L, () -> "ok"));
+        assertEquals(0, singleFlight.stats().getInFlight());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
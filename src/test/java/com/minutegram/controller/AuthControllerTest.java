@@ -2,11 +2,16 @@ package com.minutegram.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.minutegram.dto.JwtService;
+import com.minutegram.dto.AuthTokens;
 import com.minutegram.dto.LoginRequest;
+import com.minutegram.dto.RefreshTokenRequest;
+import com.minutegram.dto.VerifiedToken;
 import com.minutegram.entity.Role;
 import com.minutegram.entity.User;
 import com.minutegram.repository.UserRepository;
+import com.minutegram.service.RefreshTokenService;
 import com.minutegram.service.TokenManagementService;
+import com.minutegram.service.UserService;
 import com.minutegram.config.TestConfig;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,12 +28,15 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -61,6 +69,12 @@ class AuthControllerTest {
     @MockBean
     private AuthenticationManager authenticationManager;
 
+    @MockBean
+    private RefreshTokenService refreshTokenService;
+
+    @MockBean
+    private UserService userService;
+
     private User testUser;
     private LoginRequest loginRequest;
 
@@ -151,8 +165,9 @@ class AuthControllerTest {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
         
-        when(jwtService.generateToken(anyString(), any())).thenReturn("jwt-token");
         when(userRepository.findByEmail("john.doe@example.com")).thenReturn(Optional.of(testUser));
+        when(refreshTokenService.startSession(eq(testUser), any()))
+                .thenReturn(new AuthTokens("jwt-token", "refresh-token", 900));
 
         // Act & Assert
         mockMvc.perform(post("/api/auth/login")
@@ -161,12 +176,15 @@ class AuthControllerTest {
                 .content(objectMapper.writeValueAsString(loginRequest)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.token").value("jwt-token"))
+                .andExpect(jsonPath("$.refreshToken").value("refresh-token"))
+                .andExpect(jsonPath("$.expiresIn").value(900))
                 .andExpect(jsonPath("$.email").value("john.doe@example.com"))
                 .andExpect(jsonPath("$.name").value("John Doe"));
 
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(jwtService).generateToken(anyString(), any());
-        verify(tokenManagementService).saveUserToken(anyString(), anyString());
+        verify(refreshTokenService).startSession(eq(testUser), any());
+        // Signing in on this device leaves other devices' tokens alone.
+        verifyNoInteractions(tokenManagementService);
     }
 
     @Test
@@ -174,6 +192,8 @@ class AuthControllerTest {
     void logout_WithValidToken_ShouldReturnSuccess() throws Exception {
         // Arrange
         String authHeader = "Bearer jwt-token";
+        when(jwtService.verify("jwt-token")).thenReturn(new VerifiedToken("jti-1", "john.doe@example.com",
+                1L, "John Doe", 7L, List.of("ROLE_USER"), Instant.now().plusSeconds(900)));
 
         // Act & Assert
         mockMvc.perform(post("/api/auth/logout")
@@ -183,6 +203,7 @@ class AuthControllerTest {
                 .andExpect(content().string("Logged out successfully"));
 
         verify(tokenManagementService).invalidateToken("jwt-token");
+        verify(refreshTokenService).endSession("jwt-token", null);
     }
 
     @Test
@@ -196,4 +217,37 @@ class AuthControllerTest {
 
         verify(tokenManagementService, never()).invalidateToken(anyString());
     }
-}
\ No newline at end of file
+
+    @Test
+    void refresh_WithValidToken_ShouldReturnRotatedTokens() throws Exception {
+        // Arrange
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken("refresh-token");
+        when(refreshTokenService.refresh("refresh-token"))
+                .thenReturn(Optional.of(new AuthTokens("new-jwt-token", "new-refresh-token", 900)));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/auth/refresh")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("new-jwt-token"))
+                .andExpect(jsonPath("$.refreshToken").value("new-refresh-token"));
+    }
+
+    @Test
+    void refresh_WithUsedToken_ShouldReturnUnauthorized() throws Exception {
+        // Arrange
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken("used-token");
+        when(refreshTokenService.refresh("used-token")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/auth/refresh")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnauthorized());
+    }
+}
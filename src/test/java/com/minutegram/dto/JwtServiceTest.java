@@ -0,0 +1,91 @@
+package com.minutegram.dto;
+
+import com.minutegram.cache.CacheRegistry;
+import com.minutegram.cache.CacheStats;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private CacheRegistry cacheRegistry;
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        cacheRegistry = new CacheRegistry();
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "testsecretkeyforjwttokengenerationtestsecret");
+        ReflectionTestUtils.setField(jwtService, "expirationTime", 60_000L);
+        ReflectionTestUtils.setField(jwtService, "cacheMaxSize", 100);
+        ReflectionTestUtils.setField(jwtService, "cacheTtlSeconds", 300L);
+        ReflectionTestUtils.setField(jwtService, "cacheRegistry", cacheRegistry);
+        jwtService.init();
+    }
+
+    private CacheStats cacheStats() {
+        return cacheRegistry.stats().get(0);
+    }
+
+    @Test
+    void verify_ShouldReturnSubjectUserAndRoles() {
+        String token = jwtService.generateToken(1L, "John Doe", "john@example.com", 7L, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+        VerifiedToken verified = jwtService.verify(token);
+
+        assertEquals("john@example.com", verified.getSubject());
+        assertEquals(1L, verified.getUserId());
+        assertEquals("John Doe", verified.getName());
+        assertEquals(7L, verified.getSessionId());
+        assertEquals(List.of("ROLE_USER"), verified.getRoles());
+    }
+
+    @Test
+    void verify_SameTokenTwice_ShouldParseOnce() {
+        String token = jwtService.generateToken(1L, "John Doe", "john@example.com", 7L, List.of());
+
+        jwtService.verify(token);
+        jwtService.extractUsername(token);
+
+        assertEquals(1, cacheStats().getHits());
+        assertEquals(1, cacheStats().getSize());
+    }
+
+    @Test
+    void verify_TamperedToken_ShouldThrowAndNotBeCached() {
+        String token = jwtService.generateToken(1L, "John Doe", "john@example.com", 7L, List.of());
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtService.verify(tampered));
+        assertEquals(0, cacheStats().getSize());
+    }
+
+    @Test
+    void sweepVerifiedTokens_ShouldDropEntriesPastCacheTtl() {
+        ReflectionTestUtils.setField(jwtService, "cacheTtlNanos", 0L);
+        String token = jwtService.generateToken(1L, "John Doe", "john@example.com", 7L, List.of());
+        jwtService.verify(token);
+
+        jwtService.sweepVerifiedTokens();
+
+        assertEquals(0, cacheStats().getSize());
+        assertEquals(1, cacheStats().getEvictions());
+    }
+
+    @Test
+    void verify_WhenCacheFull_ShouldVerifyWithoutCaching() {
+        ReflectionTestUtils.setField(jwtService, "cacheMaxSize", 1);
+        jwtService.verify(jwtService.generateToken(1L, "John Doe", "john@example.com", 7L, List.of()));
+
+        VerifiedToken second = jwtService.verify(jwtService.generateToken(2L, "Jane Doe", "jane@example.com", 8L, List.of()));
+
+        assertEquals("jane@example.com", second.getSubject());
+        assertEquals(1, cacheStats().getSize());
+    }
+}
@@ -0,0 +1,65 @@
+package com.minutegram.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostSummaryDtoTest {
+
+    private PostSummaryDto summaryOf(String contentPrefix) {
+        return new PostSummaryDto(1L, contentPrefix, "title", "John Doe", "Technology", null, null, LocalDateTime.now(), 0, 0);
+    }
+
+    @Test
+    void shortContent_ShouldBeKeptWhole() {
+        PostSummaryDto dto = summaryOf("A short post.");
+
+        assertEquals("A short post.", dto.getExcerpt());
+        assertFalse(dto.isTruncated());
+    }
+
+    @Test
+    void longContent_ShouldBeCutOnWordBoundary() {
+        String prefix = "word ".repeat(100).substring(0, PostSummaryDto.EXCERPT_FETCH_LENGTH);
+
+        PostSummaryDto dto = summaryOf(prefix);
+
+        assertTrue(dto.isTruncated());
+        assertTrue(dto.getExcerpt().length() <= PostSummaryDto.EXCERPT_LENGTH);
+        assertTrue(dto.getExcerpt().endsWith("word"));
+    }
+
+    @Test
+    void longContentWithoutSpaces_ShouldBeHardCut() {
+        String prefix = "x".repeat(PostSummaryDto.EXCERPT_FETCH_LENGTH);
+
+        PostSummaryDto dto = summaryOf(prefix);
+
+        assertTrue(dto.isTruncated());
+        assertEquals(PostSummaryDto.EXCERPT_LENGTH, dto.getExcerpt().length());
+    }
+
+    @Test
+    void emojiOnlyContentWithinLimit_ShouldBeKeptWhole() {
+        // 200 code points, 400 UTF-16 chars.
+        String prefix = "\uD83D\uDE00".repeat(200);
+
+        PostSummaryDto dto = summaryOf(prefix);
+
+        assertFalse(dto.isTruncated());
+        assertEquals(prefix, dto.getExcerpt());
+    }
+
+    @Test
+    void longEmojiOnlyContent_ShouldBeCutOnCodePoints() {
+        String prefix = "\uD83D\uDE00".repeat(PostSummaryDto.EXCERPT_FETCH_LENGTH);
+
+        PostSummaryDto dto = summaryOf(prefix);
+
+        assertTrue(dto.isTruncated());
+        assertEquals(PostSummaryDto.EXCERPT_LENGTH, dto.getExcerpt().codePointCount(0, dto.getExcerpt().length()));
+        assertTrue(Character.isLowSurrogate(dto.getExcerpt().charAt(dto.getExcerpt().length() - 1)));
+    }
+}
@@ -0,0 +1,261 @@
+package com.minutegram.service;
+
+import com.minutegram.dto.CommentCreateDto;
+import com.minutegram.dto.CommentNodeDto;
+import com.minutegram.dto.CommentResponseDto;
+import com.minutegram.dto.CommentTargetDto;
+import com.minutegram.dto.CursorPage;
+import com.minutegram.dto.FeedCursor;
+import com.minutegram.entity.Comment;
+import com.minutegram.entity.Post;
+import com.minutegram.entity.User;
+import com.minutegram.exception.InvalidInputException;
+import com.minutegram.repository.CommentRepository;
+import com.minutegram.repository.PostRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CommentServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private PostDetailCache postDetailCache;
+
+    @Mock
+    private HotRankingEngine hotRankingEngine;
+
+    @Mock
+    private CommentTreeCache commentTreeCache;
+
+    @InjectMocks
+    private CommentService commentService;
+
+    @Test
+    void getThread_ShouldInlineFirstRepliesAndContinuationCursor() {
+        // Arrange
+        CommentNodeDto withReplies = new CommentNodeDto(2L, "top", "John Doe", NOW, null, 3);
+        CommentNodeDto withoutReplies = new CommentNodeDto(1L, "top", "John Doe", NOW.minusMinutes(1), null, 0);
+        when(commentRepository.findThreadFirstPage(10L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(withReplies, withoutReplies));
+        when(commentRepository.findFirstRepliesOf(Set.of(2L), 2)).thenReturn(List.of(
+                new Object[]{5L, "reply", "Jane", Timestamp.valueOf(NOW.plusMinutes(1)), 2L, 0},
+                new Object[]{6L, "reply", "Jane", Timestamp.valueOf(NOW.plusMinutes(2)), 2L, 1}));
+
+        // Act
+        CursorPage<CommentNodeDto> page = commentService.getThread(10L, null, 2, 2);
+
+        // Assert
+        assertFalse(page.isHasNext());
+        assertEquals(2, page.getItems().get(0).getReplies().size());
+        assertTrue(page.getItems().get(1).getReplies().isEmpty());
+        FeedCursor more = FeedCursor.decode(page.getItems().get(0).getRepliesCursor());
+        assertEquals(6L, more.getId());
+        assertNull(page.getItems().get(1).getRepliesCursor());
+    }
+
+    @Test
+    void getThread_WithoutReplies_ShouldNotQueryReplies() {
+        when(commentRepository.findThreadFirstPage(10L, PageRequest.of(0, 21)))
+                .thenReturn(List.of(new CommentNodeDto(1L, "top", "John Doe", NOW, null, 0)));
+
+        commentService.getThread(10L, null, 20, 3);
+
+        verify(commentRepository, never()).findFirstRepliesOf(any(), anyInt());
+    }
+
+    @Test
+    void getRepliesPage_ShouldSeekPastCursor() {
+        // Arrange
+        String cursor = new FeedCursor(NOW, 6L).encode();
+        List<CommentNodeDto> rows = List.of(
+                new CommentNodeDto(7L, "reply", "Jane", NOW.plusMinutes(1), 2L, 0),
+                new CommentNodeDto(8L, "reply", "Jane", NOW.plusMinutes(2), 2L, 0));
+        when(commentRepository.findRepliesAfter(2L, NOW, 6L, PageRequest.of(0, 2))).thenReturn(rows);
+
+        // Act
+        CursorPage<CommentNodeDto> page = commentService.getRepliesPage(2L, cursor, 1);
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        assertTrue(page.isHasNext());
+        assertEquals(7L, FeedCursor.decode(page.getNextCursor()).getId());
+    }
+
+    @Test
+    void createComment_ShouldExtendParentPathWithoutLoadingPostOrParent() {
+        // Arrange
+        String parentPath = Comment.pathSegment(1L) + Comment.pathSegment(2L);
+        CommentCreateDto dto = new CommentCreateDto();
+        dto.setContent("reply");
+        dto.setPostId(10L);
+        dto.setParentCommentId(2L);
+        when(userService.getCurrentUserReference()).thenReturn(new User());
+        when(userService.getCurrentUserName()).thenReturn("John Doe");
+        when(commentRepository.findCommentTarget(10L, 2L))
+                .thenReturn(Optional.of(new CommentTargetDto(10L, "Post", 2L, 1, parentPath)));
+        when(commentRepository.save(any(Comment.class))).thenAnswer(invocation -> {
+            Comment saved = invocation.getArgument(0);
+            saved.setId(7L);
+            return saved;
+        });
+
+        // Act
+        CommentResponseDto created = commentService.createComment(dto);
+
+        // Assert
+        verify(commentRepository).save(argThat(comment ->
+                comment.getDepth() == 2
+                        && comment.getPath().equals(parentPath + Comment.pathSegment(7L))));
+        verify(commentRepository).adjustReplyCount(2L, 1);
+        verify(postRepository, never()).findById(any());
+        verify(commentRepository, never()).findById(any());
+        verify(userService, never()).getCurrentUser();
+        assertEquals("John Doe", created.getAuthorName());
+        assertEquals("Post", created.getPostTitle());
+        assertEquals(2L, created.getParentCommentId());
+    }
+
+    @Test
+    void createComment_WithParentOnOtherPost_ShouldThrowException() {
+        CommentCreateDto dto = new CommentCreateDto();
+        dto.setContent("reply");
+        dto.setPostId(10L);
+        dto.setParentCommentId(2L);
+        when(commentRepository.findCommentTarget(10L, 2L))
+                .thenReturn(Optional.of(new CommentTargetDto(10L, "Post", null, null, null)));
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> commentService.createComment(dto));
+        assertEquals("Parent comment not found", exception.getMessage());
+        verify(commentRepository, never()).save(any());
+    }
+
+    @Test
+    void getSubtree_ShouldNestRowsAndStopAtPageSize() {
+        // Arrange
+        String rootPath = Comment.pathSegment(2L);
+        Comment root = new Comment();
+        root.setId(2L);
+        root.setPath(rootPath);
+        Post post = new Post();
+        post.setId(10L);
+        root.setPost(post);
+        when(commentRepository.findById(2L)).thenReturn(Optional.of(root));
+        String childPath = rootPath + Comment.pathSegment(5L);
+        String grandchildPath = childPath + Comment.pathSegment(9L);
+        List<CommentNodeDto> rows = List.of(
+                new CommentNodeDto(2L, "root", "John Doe", NOW, null, 1, 0, rootPath),
+                new CommentNodeDto(5L, "child", "Jane", NOW, 2L, 1, 1, childPath),
+                new CommentNodeDto(9L, "grandchild", "Jane", NOW, 5L, 0, 2, grandchildPath),
+                new CommentNodeDto(6L, "child", "Jane", NOW, 2L, 0, 1, rootPath + Comment.pathSegment(6L)));
+        when(commentRepository.findSubtree(10L, rootPath, Comment.pathSegment(3L), 2, PageRequest.of(0, 4)))
+                .thenReturn(rows);
+
+        // Act
+        CursorPage<CommentNodeDto> page = commentService.getSubtree(2L, null, 2, 3);
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        CommentNodeDto child = page.getItems().get(0).getReplies().get(0);
+        assertEquals(9L, child.getReplies().get(0).getId());
+        assertTrue(page.isHasNext());
+
+        when(commentRepository.findSubtreeAfter(10L, grandchildPath, Comment.pathSegment(3L), 2, PageRequest.of(0, 4)))
+                .thenReturn(List.of(rows.get(3)));
+        CursorPage<CommentNodeDto> next = commentService.getSubtree(2L, page.getNextCursor(), 2, 3);
+        assertEquals(6L, next.getItems().get(0).getId());
+        assertFalse(next.isHasNext());
+    }
+
+    @Test
+    void getSubtree_WithMalformedCursor_ShouldThrowException() {
+        Comment root = new Comment();
+        root.setPath(Comment.pathSegment(2L));
+        Post post = new Post();
+        post.setId(10L);
+        root.setPost(post);
+        when(commentRepository.findById(2L)).thenReturn(Optional.of(root));
+
+        assertThrows(InvalidInputException.class, () -> commentService.getSubtree(2L, "bm90LWEtcGF0aA", 2, 10));
+    }
+
+    @Test
+    void getRepliesBatch_ShouldGroupByParentFromOneQuery() {
+        // Arrange
+        when(commentRepository.findFirstRepliesOf(Set.of(2L, 3L, 4L), 2)).thenReturn(List.of(
+                new Object[]{5L, "reply", "Jane", Timestamp.valueOf(NOW), 2L, 0},
+                new Object[]{6L, "reply", "Jane", Timestamp.valueOf(NOW.plusMinutes(1)), 2L, 0},
+                new Object[]{7L, "reply", "Jane", Timestamp.valueOf(NOW), 3L, 0}));
+
+        // Act
+        Map<Long, CursorPage<CommentNodeDto>> groups = commentService.getRepliesBatch(List.of(3L, 2L, 4L, 2L), 1);
+
+        // Assert
+        verify(commentRepository, times(1)).findFirstRepliesOf(any(), anyInt());
+        assertEquals(List.of(3L, 2L, 4L), List.copyOf(groups.keySet()));
+        assertEquals(5L, groups.get(2L).getItems().get(0).getId());
+        assertTrue(groups.get(2L).isHasNext());
+        assertEquals(5L, FeedCursor.decode(groups.get(2L).getNextCursor()).getId());
+        assertFalse(groups.get(3L).isHasNext());
+        assertTrue(groups.get(4L).getItems().isEmpty());
+    }
+
+    @Test
+    void getRepliesBatch_WithTooManyParents_ShouldThrowException() {
+        List<Long> ids = LongStream.rangeClosed(1, 101).boxed().toList();
+
+        assertThrows(InvalidInputException.class, () -> commentService.getRepliesBatch(ids, 5));
+        verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    void searchComments_ShouldEscapeWildcardsAndSeekPastCursor() {
+        // Arrange
+        String cursor = new FeedCursor(NOW, 9L).encode();
+        List<CommentResponseDto> rows = List.of(
+                new CommentResponseDto(8L, "100% sure", "Jane", NOW, null, "Post"),
+                new CommentResponseDto(7L, "100% sure", "Jane", NOW.minusMinutes(1), null, "Post"));
+        when(commentRepository.searchDtosAfter("%100\\%%", NOW, 9L, PageRequest.of(0, 2))).thenReturn(rows);
+
+        // Act
+        CursorPage<CommentResponseDto> page = commentService.searchComments("100%", cursor, 1);
+
+        // Assert
+        assertEquals(List.of(8L), page.getItems().stream().map(CommentResponseDto::getId).toList());
+        assertTrue(page.isHasNext());
+        assertEquals(8L, FeedCursor.decode(page.getNextCursor()).getId());
+    }
+
+    @Test
+    void containsPattern_ShouldMatchTermLiterally() {
+        assertEquals("%a\\_b\\\\c%", CommentService.containsPattern("a_b\\c"));
+    }
+}
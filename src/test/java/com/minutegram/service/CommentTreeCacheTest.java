@@ -0,0 +1,151 @@
+package com.minutegram.service;
+
+import com.minutegram.cache.CacheRegistry;
+import com.minutegram.cache.CommentTreeCacheStats;
+import com.minutegram.dto.CommentResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommentTreeCacheTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private CommentTreeCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CommentTreeCache(new CacheRegistry(), true, 2, 1_000_000, 60);
+        loads = new AtomicInteger();
+    }
+
+    private static CommentResponseDto comment(long id, Long parentId, int minute) {
+        return new CommentResponseDto(id, "comment " + id, "John Doe", NOW.plusMinutes(minute), parentId, "Post");
+    }
+
+    // Top-level 1 (with reply 2) and top-level 3, as getPostComments assembles them.
+    private Supplier<List<CommentResponseDto>> loader() {
+        return () -> {
+            loads.incrementAndGet();
+            CommentResponseDto first = comment(1L, null, 0);
+            first.getReplies().add(comment(2L, 1L, 1));
+            return new ArrayList<>(List.of(comment(3L, null, 2), first));
+        };
+    }
+
+    @Test
+    void get_ShouldServeRepeatedReadsFromCache() {
+        cache.get(10L, loader());
+        List<CommentResponseDto> again = cache.get(10L, loader());
+
+        assertEquals(1, loads.get());
+        assertEquals(List.of(3L, 1L), again.stream().map(CommentResponseDto::getId).toList());
+    }
+
+    @Test
+    void onCommentCreated_ShouldInsertInSortedPositionWithoutReload() {
+        List<CommentResponseDto> before = cache.get(10L, loader());
+
+        cache.onCommentCreated(10L, comment(4L, 1L, 3));
+        cache.onCommentCreated(10L, comment(5L, null, 4));
+        List<CommentResponseDto> after = cache.get(10L, loader());
+
+        assertEquals(1, loads.get());
+        assertEquals(List.of(5L, 3L, 1L), after.stream().map(CommentResponseDto::getId).toList());
+        assertEquals(List.of(2L, 4L), after.get(2).getReplies().stream().map(CommentResponseDto::getId).toList());
+        // Snapshots handed out earlier are not changed.
+        assertEquals(2, before.size());
+        assertEquals(1, before.get(1).getReplies().size());
+    }
+
+    @Test
+    void onCommentDeleted_ShouldPruneSubtree() {
+        cache.get(10L, loader());
+        cache.onCommentCreated(10L, comment(4L, 2L, 3));
+
+        cache.onCommentDeleted(10L, 1L);
+        List<CommentResponseDto> after = cache.get(10L, loader());
+
+        assertEquals(List.of(3L), after.stream().map(CommentResponseDto::getId).toList());
+        assertEquals(1, cache.stats().getTreeSizes().get(0).getComments());
+    }
+
+    @Test
+    void onCommentCreated_WithUnknownParent_ShouldDropTree() {
+        cache.get(10L, loader());
+
+        cache.onCommentCreated(10L, comment(4L, 99L, 3));
+        cache.get(10L, loader());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void stats_ShouldReportSizePerTreeAndRespectBound() {
+        cache.get(10L, loader());
+        cache.get(20L, loader());
+        cache.get(30L, loader());
+
+        CommentTreeCacheStats stats = cache.stats();
+        assertEquals(2, stats.getTrees());
+        assertEquals(1, stats.getEvictions());
+        assertEquals(3, stats.getTreeSizes().get(0).getComments());
+        assertTrue(stats.getTreeSizes().get(0).getEstimatedBytes() > 0);
+        assertEquals(stats.getEstimatedBytes(),
+                stats.getTreeSizes().stream().mapToLong(CommentTreeCacheStats.TreeSize::getEstimatedBytes).sum());
+    }
+
+    @Test
+    void get_WhenOtherPostWrittenDuringLoad_ShouldStillCache() {
+        cache.get(10L, () -> {
+            cache.onCommentCreated(20L, comment(4L, null, 3));
+            return loader().get();
+        });
+        cache.get(10L, loader());
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_WhenSamePostWrittenDuringLoad_ShouldNotCache() {
+        cache.get(10L, () -> {
+            cache.onCommentCreated(10L, comment(4L, null, 3));
+            return loader().get();
+        });
+        cache.get(10L, loader());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_AfterTtl_ShouldReload() {
+        CommentTreeCache expiring = new CommentTreeCache(new CacheRegistry(), true, 2, 1_000_000, 0);
+        expiring.get(10L, loader());
+        expiring.get(10L, loader());
+
+        assertEquals(2, loads.get());
+        assertEquals(1, expiring.stats().getTrees());
+    }
+
+    @Test
+    void evictAll_ShouldDropEveryTreeAndItsSize() {
+        cache.get(10L, loader());
+        cache.get(20L, loader());
+
+        cache.evictAll();
+        cache.get(10L, loader());
+
+        assertEquals(3, loads.get());
+        CommentTreeCacheStats stats = cache.stats();
+        assertEquals(1, stats.getTrees());
+        assertEquals(stats.getTreeSizes().get(0).getEstimatedBytes(), stats.getEstimatedBytes());
+    }
+}
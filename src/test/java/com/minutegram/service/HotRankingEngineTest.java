@@ -0,0 +1,101 @@
+package com.minutegram.service;
+
+import com.minutegram.dto.CursorPage;
+import com.minutegram.exception.InvalidInputException;
+import com.minutegram.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HotRankingEngineTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private HotRankingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new HotRankingEngine(mock(PostRepository.class), 3, 2, 45000, 7, 1000);
+    }
+
+    @Test
+    void page_ShouldOrderByScoreAndFollowCursor() {
+        engine.onPostCreated(1L, 10L, NOW.minusHours(2));
+        engine.onPostCreated(2L, 10L, NOW.minusHours(1));
+        engine.onPostCreated(3L, 20L, NOW);
+
+        CursorPage<Long> first = engine.page(null, null, 2);
+        assertEquals(List.of(3L, 2L), first.getItems());
+        assertTrue(first.isHasNext());
+
+        CursorPage<Long> second = engine.page(null, first.getNextCursor(), 2);
+        assertEquals(List.of(1L), second.getItems());
+        assertFalse(second.isHasNext());
+    }
+
+    @Test
+    void onLikesChanged_ShouldMoveOlderPostUp() {
+        engine.onPostCreated(1L, 10L, NOW.minusHours(1));
+        engine.onPostCreated(2L, 10L, NOW);
+
+        // 100 points is two orders of magnitude, worth far more than one hour of age.
+        engine.onLikesChanged(1L, 100);
+
+        assertEquals(List.of(1L, 2L), engine.page(10L, null, 10).getItems());
+    }
+
+    @Test
+    void topK_ShouldForgetPostsOutsideEverySet() {
+        engine.onPostCreated(1L, 10L, NOW.minusHours(3));
+        engine.onPostCreated(2L, 10L, NOW.minusHours(2));
+        engine.onPostCreated(3L, 10L, NOW.minusHours(1));
+        engine.onPostCreated(4L, 20L, NOW);
+
+        assertEquals(List.of(4L, 3L, 2L), engine.page(null, null, 10).getItems());
+        assertEquals(List.of(3L, 2L), engine.page(10L, null, 10).getItems());
+        assertEquals(3, engine.trackedPosts());
+    }
+
+    @Test
+    void onPostDeletedAndOnTopicDeleted_ShouldRemoveFromRanking() {
+        engine.onPostCreated(1L, 10L, NOW.minusHours(1));
+        engine.onPostCreated(2L, 20L, NOW);
+
+        engine.onPostDeleted(2L);
+        assertEquals(List.of(1L), engine.page(null, null, 10).getItems());
+
+        engine.onTopicDeleted(10L);
+        assertTrue(engine.page(null, null, 10).getItems().isEmpty());
+        assertEquals(0, engine.trackedPosts());
+    }
+
+    @Test
+    void rebuild_ShouldReplayUpdatesCommittedWhileLoading() {
+        PostRepository postRepository = mock(PostRepository.class);
+        HotRankingEngine rebuilding = new HotRankingEngine(postRepository, 3, 2, 45000, 7, 1000);
+        rebuilding.onPostCreated(1L, 10L, NOW.minusHours(1));
+        when(postRepository.findRankingInputsSince(any(), any())).thenAnswer(invocation -> {
+            // Commits while the rebuild is reading: not in the rows it returns.
+            rebuilding.onPostCreated(2L, 10L, NOW);
+            rebuilding.onLikesChanged(1L, 100);
+            return List.<Object[]>of(new Object[]{1L, 10L, NOW.minusHours(1), 0, 0});
+        });
+
+        rebuilding.rebuild();
+
+        assertEquals(List.of(1L, 2L), rebuilding.page(10L, null, 10).getItems());
+        assertEquals(2, rebuilding.trackedPosts());
+    }
+
+    @Test
+    void page_WithMalformedCursor_ShouldThrowException() {
+        assertThrows(InvalidInputException.class, () -> engine.page(null, "not-a-cursor", 10));
+    }
+}
@@ -0,0 +1,82 @@
+package com.minutegram.service;
+
+import com.minutegram.cache.CacheRegistry;
+import com.minutegram.dto.PostResponseDto;
+import com.minutegram.dto.PostWithCommentsDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostDetailCacheTest {
+
+    private static PostWithCommentsDto page(String content) {
+        return new PostWithCommentsDto(new PostResponseDto(1L, content, "title", "John Doe", "Technology",
+                null, null, LocalDateTime.of(2024, 1, 1, 12, 0), 0, 0), List.of());
+    }
+
+    @Test
+    void get_WhenJoiningLoadStartedBeforeInvalidation_ShouldReload() throws Exception {
+        CacheRegistry registry = new CacheRegistry();
+        PostDetailCache cache = new PostDetailCache(registry, true, 10, 60);
+        CountDownLatch leaderLoading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<PostWithCommentsDto> leader = executor.submit(() -> cache.get(1L, () -> {
+                leaderLoading.countDown();
+                await(release);
+                return page("before");
+            }));
+            assertTrue(leaderLoading.await(5, TimeUnit.SECONDS));
+
+            // A writer commits and evicts, then reads its own post while the old load is still running.
+            cache.evict(1L);
+            Future<PostWithCommentsDto> writer = executor.submit(() -> cache.get(1L, () -> page("after")));
+            while (registry.singleFlightStats().get(0).getCollapsed() == 0) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertEquals("before", leader.get(5, TimeUnit.SECONDS).getPost().getContent());
+            assertEquals("after", writer.get(5, TimeUnit.SECONDS).getPost().getContent());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void get_WhenDisabled_ShouldCallLoaderEveryTime() {
+        CacheRegistry registry = new CacheRegistry();
+        PostDetailCache cache = new PostDetailCache(registry, false, 10, 60);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, () -> {
+            loads.incrementAndGet();
+            return page("content");
+        });
+        cache.get(1L, () -> {
+            loads.incrementAndGet();
+            return page("content");
+        });
+
+        assertEquals(2, loads.get());
+        assertEquals(0, registry.singleFlightStats().get(0).getCalls());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.minutegram.service;
 
+import com.minutegram.dto.CursorPage;
+import com.minutegram.dto.FeedCursor;
 import com.minutegram.dto.PostCreateDto;
 import com.minutegram.dto.PostResponseDto;
+import com.minutegram.dto.PostSummaryDto;
 import com.minutegram.dto.PostWithCommentsDto;
 import com.minutegram.entity.Post;
 import com.minutegram.entity.Topic;
@@ -10,10 +13,10 @@ import com.minutegram.exception.InvalidInputException;
 import com.minutegram.exception.TopicNotFoundException;
 import com.minutegram.repository.PostRepository;
 import com.minutegram.repository.TopicRepository;
-import com.minutegram.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -27,9 +30,11 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -48,7 +53,25 @@ class PostServiceTest {
     private StorageService storageService;
 
     @Mock
-    private UserRepository userRepository;
+    private PostLikeEngine postLikeEngine;
+
+    @Mock
+    private LikeWriteBuffer likeWriteBuffer;
+
+    @Mock
+    private PostDetailCache postDetailCache;
+
+    @Mock
+    private CommentTreeCache commentTreeCache;
+
+    @Mock
+    private HotRankingEngine hotRankingEngine;
+
+    @Mock
+    private TimelineService timelineService;
+
+    @Mock
+    private TopicDirectory topicDirectory;
 
     @Mock
     private CommentService commentService;
@@ -119,8 +142,10 @@ class PostServiceTest {
     @Test
     void createPost_WithValidData_ShouldCreatePost() {
         // Arrange
-        when(topicRepository.findByName("Technology")).thenReturn(Optional.of(testTopic));
-        when(userService.getCurrentUser()).thenReturn(testUser);
+        when(topicDirectory.resolve("Technology")).thenReturn(Optional.of(1L));
+        when(topicRepository.getReferenceById(1L)).thenReturn(testTopic);
+        when(userService.getCurrentUserReference()).thenReturn(testUser);
+        when(topicRepository.lockForNewPost(1L)).thenReturn(Optional.of(1L));
         when(postRepository.save(any(Post.class))).thenReturn(testPost);
         when(postRepository.findProjectedById(1L)).thenReturn(Optional.of(postResponseDto));
 
@@ -132,16 +157,25 @@ class PostServiceTest {
         assertEquals("Test Post", result.getTitle());
         assertEquals("This is a test post content", result.getContent());
         
-        verify(topicRepository).findByName("Technology");
-        verify(userService).getCurrentUser();
-        verify(postRepository).save(any(Post.class));
+        verify(topicDirectory).resolve("Technology");
+        verify(topicRepository, never()).findByName(any());
+        verify(topicRepository, never()).findById(any());
+        verify(userService).getCurrentUserReference();
+        verify(userService, never()).getCurrentUser();
         verify(postRepository).findProjectedById(1L);
+        // The topic row lock is taken last, after the timeline fan-out.
+        InOrder inOrder = inOrder(topicRepository, postRepository, hotRankingEngine, timelineService);
+        inOrder.verify(topicRepository).lockForNewPost(1L);
+        inOrder.verify(postRepository).save(any(Post.class));
+        inOrder.verify(hotRankingEngine).onPostCreated(eq(1L), eq(1L), any());
+        inOrder.verify(timelineService).onPostCreated(eq(1L), eq(1L), any());
+        inOrder.verify(topicRepository).recordPost(eq(1L), any());
     }
 
     @Test
     void createPost_WithNonExistentTopic_ShouldThrowException() {
         // Arrange
-        when(topicRepository.findByName("Technology")).thenReturn(Optional.empty());
+        when(topicDirectory.resolve("Technology")).thenReturn(Optional.empty());
 
         // Act & Assert
         TopicNotFoundException exception = assertThrows(TopicNotFoundException.class, () -> {
@@ -149,9 +183,25 @@ class PostServiceTest {
         });
 
         assertEquals("Technology", exception.getMessage());
-        verify(topicRepository).findByName("Technology");
-        verify(userService, never()).getCurrentUser();
+        verify(topicDirectory).resolve("Technology");
+        verify(userService, never()).getCurrentUserReference();
+        verify(postRepository, never()).save(any(Post.class));
+    }
+
+    @Test
+    void createPost_WithTopicDeletedElsewhere_ShouldEvictItAndThrowException() {
+        // Arrange: the directory still resolves the name, but the topic row is gone.
+        when(topicDirectory.resolve("Technology")).thenReturn(Optional.of(1L));
+        when(topicRepository.getReferenceById(1L)).thenReturn(testTopic);
+        when(userService.getCurrentUserReference()).thenReturn(testUser);
+        when(topicRepository.lockForNewPost(1L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(TopicNotFoundException.class, () -> postService.createPost(postCreateDto, null, null));
+
+        verify(topicDirectory).onTopicMissing(1L);
         verify(postRepository, never()).save(any(Post.class));
+        verify(topicRepository, never()).recordPost(any(), any());
     }
 
     @Test
@@ -165,7 +215,7 @@ class PostServiceTest {
         });
 
         assertEquals("post content cannot be empty", exception.getMessage());
-        verify(topicRepository, never()).findByName(any());
+        verify(topicDirectory, never()).resolve(any());
     }
 
     @Test
@@ -198,13 +248,14 @@ class PostServiceTest {
     void getAllPosts_ShouldReturnPagedPosts() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        List<PostResponseDto> posts = Arrays.asList(postResponseDto);
-        Page<PostResponseDto> postPage = new PageImpl<>(posts, pageable, 1);
+        List<PostSummaryDto> posts = Arrays.asList(new PostSummaryDto(1L, "Test content", "Test Post",
+                "John Doe", "Technology", null, null, LocalDateTime.now(), 0, 0));
+        Page<PostSummaryDto> postPage = new PageImpl<>(posts, pageable, 1);
         
         when(postRepository.findAllProjectedBy(pageable)).thenReturn(postPage);
 
         // Act
-        Page<PostResponseDto> result = postService.getAllPosts(pageable);
+        Page<PostSummaryDto> result = postService.getAllPosts(pageable);
 
         // Assert
         assertNotNull(result);
@@ -215,6 +266,88 @@ class PostServiceTest {
         verify(postRepository).findAllProjectedBy(pageable);
     }
 
+    @Test
+    void getFeed_WithoutCursor_ShouldReturnFirstPageAndNextCursor() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        PostSummaryDto newest = new PostSummaryDto(3L, "c", "t3", "John Doe", "Technology", null, null, now, 0, 0);
+        PostSummaryDto middle = new PostSummaryDto(2L, "c", "t2", "John Doe", "Technology", null, null, now.minusMinutes(1), 0, 0);
+        PostSummaryDto oldest = new PostSummaryDto(1L, "c", "t1", "John Doe", "Technology", null, null, now.minusMinutes(2), 0, 0);
+        when(postRepository.findFeedFirstPage(PageRequest.of(0, 3))).thenReturn(Arrays.asList(newest, middle, oldest));
+
+        // Act
+        CursorPage<PostSummaryDto> result = postService.getFeed(null, 2);
+
+        // Assert
+        assertEquals(2, result.getItems().size());
+        assertTrue(result.isHasNext());
+        FeedCursor next = FeedCursor.decode(result.getNextCursor());
+        assertEquals(2L, next.getId());
+        assertEquals(now.minusMinutes(1), next.getCreatedAt());
+    }
+
+    @Test
+    void getFeed_WithCursor_ShouldSeekPastLastSeenRow() {
+        // Arrange
+        LocalDateTime seen = LocalDateTime.of(2024, 1, 1, 12, 0);
+        String cursor = new FeedCursor(seen, 5L).encode();
+        PostSummaryDto row = new PostSummaryDto(4L, "c", "t4", "John Doe", "Technology", null, null, seen.minusMinutes(1), 0, 0);
+        when(postRepository.findFeedAfter(seen, 5L, PageRequest.of(0, 11))).thenReturn(List.of(row));
+
+        // Act
+        CursorPage<PostSummaryDto> result = postService.getFeed(cursor, 10);
+
+        // Assert
+        assertEquals(1, result.getItems().size());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+        verify(postRepository, never()).findFeedFirstPage(any());
+    }
+
+    @Test
+    void getFeed_WithMalformedCursor_ShouldThrowException() {
+        assertThrows(InvalidInputException.class, () -> postService.getFeed("not-a-cursor", 10));
+    }
+
+    @Test
+    void getHome_ShouldPageCurrentUsersTimeline() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        PostSummaryDto newer = new PostSummaryDto(2L, "c", "t2", "John Doe", "Technology", null, null, now, 0, 0);
+        PostSummaryDto older = new PostSummaryDto(1L, "c", "t1", "John Doe", "Technology", null, null, now.minusMinutes(1), 0, 0);
+        when(userService.getCurrentUserId()).thenReturn(1L);
+        when(timelineService.loadHome(1L, null, 2)).thenReturn(List.of(newer, older));
+
+        // Act
+        CursorPage<PostSummaryDto> result = postService.getHome(null, 1);
+
+        // Assert
+        assertEquals(1, result.getItems().size());
+        assertEquals(2L, result.getItems().get(0).getId());
+        assertTrue(result.isHasNext());
+        assertEquals(2L, FeedCursor.decode(result.getNextCursor()).getId());
+    }
+
+    @Test
+    void getHot_ShouldKeepRankingOrderAndSkipDeletedPosts() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        PostSummaryDto first = new PostSummaryDto(7L, "c", "t7", "John Doe", "Technology", null, null, now, 5, 0);
+        PostSummaryDto second = new PostSummaryDto(3L, "c", "t3", "John Doe", "Technology", null, null, now, 1, 0);
+        when(hotRankingEngine.page(null, null, 10)).thenReturn(new CursorPage<>(List.of(7L, 9L, 3L), "next", true));
+        when(postRepository.findSummariesByIdIn(List.of(7L, 9L, 3L))).thenReturn(List.of(second, first));
+
+        // Act
+        CursorPage<PostSummaryDto> result = postService.getHot(null, null, 10);
+
+        // Assert
+        assertEquals(2, result.getItems().size());
+        assertEquals(7L, result.getItems().get(0).getId());
+        assertEquals(3L, result.getItems().get(1).getId());
+        assertEquals("next", result.getNextCursor());
+        assertTrue(result.isHasNext());
+    }
+
     @Test
     void getPostById_WithValidId_ShouldReturnPost() {
         // Arrange
@@ -248,6 +381,8 @@ class PostServiceTest {
     @Test
     void getPostWithComments_WithValidId_ShouldReturnPostWithComments() {
         // Arrange
+        when(postDetailCache.get(eq(1L), any())).thenAnswer(invocation ->
+                invocation.<Supplier<PostWithCommentsDto>>getArgument(1).get());
         when(postRepository.findProjectedById(1L)).thenReturn(Optional.of(postResponseDto));
         when(commentService.getPostComments(1L)).thenReturn(Arrays.asList());
 
@@ -274,8 +409,12 @@ class PostServiceTest {
 
         // Assert
         verify(postRepository).findById(1L);
+        verify(topicRepository).adjustPostCountOfPost(1L, -1);
         verify(postRepository).delete(testPost);
         verify(storageService, never()).deleteFile(any()); // No image URL in test post
+        verify(timelineService).onPostDeleted(1L);
+        verify(postDetailCache).evict(1L);
+        verify(hotRankingEngine).onPostDeleted(1L);
     }
 
     @Test
@@ -296,26 +435,23 @@ class PostServiceTest {
     @Test
     void likePost_WithValidData_ShouldLikePost() {
         // Arrange
-        when(postRepository.findById(1L)).thenReturn(Optional.of(testPost));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(postRepository.save(any(Post.class))).thenReturn(testPost);
+        when(postLikeEngine.like(1L, 1L)).thenReturn(true);
 
         // Act
         postService.likePost(1L, 1L);
 
         // Assert
-        verify(postRepository).findById(1L);
-        verify(userRepository).findById(1L);
-        verify(postRepository).save(testPost);
-        assertTrue(testPost.getLikedByUsers().contains(testUser));
+        verify(postLikeEngine).like(1L, 1L);
+        verify(postRepository, never()).findById(any());
+        verify(postDetailCache).evict(1L);
+        verify(postRepository, never()).save(any());
     }
 
     @Test
     void likePost_WhenAlreadyLiked_ShouldThrowException() {
         // Arrange
-        testPost.getLikedByUsers().add(testUser); // Already liked
-        when(postRepository.findById(1L)).thenReturn(Optional.of(testPost));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(postLikeEngine.like(1L, 1L)).thenReturn(false);
+        when(postRepository.existsById(1L)).thenReturn(true);
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -323,32 +459,52 @@ class PostServiceTest {
         });
 
         assertEquals("Already liked", exception.getMessage());
-        verify(postRepository, never()).save(any());
+    }
+
+    @Test
+    void likePost_WhenPostMissing_ShouldThrowException() {
+        // Arrange
+        when(postLikeEngine.like(999L, 1L)).thenReturn(false);
+        when(postRepository.existsById(999L)).thenReturn(false);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            postService.likePost(999L, 1L);
+        });
+
+        assertEquals("Post not found", exception.getMessage());
+    }
+
+    @Test
+    void likePost_WhenBufferAcceptsIntent_ShouldNotWriteSynchronously() {
+        // Arrange
+        when(likeWriteBuffer.offer(1L, 1L, true)).thenReturn(true);
+
+        // Act
+        postService.likePost(1L, 1L);
+
+        // Assert
+        verify(postLikeEngine, never()).like(any(), any());
     }
 
     @Test
     void unlikePost_WithValidData_ShouldUnlikePost() {
         // Arrange
-        testPost.getLikedByUsers().add(testUser); // Already liked
-        when(postRepository.findById(1L)).thenReturn(Optional.of(testPost));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(postRepository.save(any(Post.class))).thenReturn(testPost);
+        when(postLikeEngine.unlike(1L, 1L)).thenReturn(true);
 
         // Act
         postService.unlikePost(1L, 1L);
 
         // Assert
-        verify(postRepository).findById(1L);
-        verify(userRepository).findById(1L);
-        verify(postRepository).save(testPost);
-        assertFalse(testPost.getLikedByUsers().contains(testUser));
+        verify(postLikeEngine).unlike(1L, 1L);
+        verify(postRepository, never()).save(any());
     }
 
     @Test
     void unlikePost_WhenNotLiked_ShouldThrowException() {
         // Arrange
-        when(postRepository.findById(1L)).thenReturn(Optional.of(testPost));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(postLikeEngine.unlike(1L, 1L)).thenReturn(false);
+        when(postRepository.existsById(1L)).thenReturn(true);
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -356,6 +512,5 @@ class PostServiceTest {
         });
 
         assertEquals("Not liked yet", exception.getMessage());
-        verify(postRepository, never()).save(any());
     }
-}
\ No newline at end of file
+}
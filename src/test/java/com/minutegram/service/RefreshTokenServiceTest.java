@@ -0,0 +1,188 @@
+package com.minutegram.service;
+
+import com.minutegram.dto.AuthTokens;
+import com.minutegram.dto.JwtService;
+import com.minutegram.dto.VerifiedToken;
+import com.minutegram.entity.RefreshSession;
+import com.minutegram.entity.Role;
+import com.minutegram.entity.User;
+import com.minutegram.repository.RefreshSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshSessionRepository refreshSessionRepository;
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private TokenManagementService tokenManagementService;
+
+    private RefreshTokenService refreshTokenService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshSessionRepository, jwtService, tokenManagementService, 30, 90);
+        user = new User();
+        user.setId(1L);
+        user.setName("John Doe");
+        user.setEmail("john.doe@example.com");
+        user.setRoles(Set.of(Role.USER));
+    }
+
+    private RefreshSession session(String refreshToken, Instant expiresAt) {
+        RefreshSession session = new RefreshSession();
+        session.setId(7L);
+        session.setUser(user);
+        session.setTokenHash(JwtService.hash(refreshToken));
+        session.setExpiresAt(expiresAt);
+        return session;
+    }
+
+    private static VerifiedToken issued(String tokenId, Instant expiresAt) {
+        return new VerifiedToken(tokenId, "john.doe@example.com", 1L, "John Doe", 7L, List.of("ROLE_USER"), expiresAt);
+    }
+
+    @Test
+    void startSession_ShouldStoreOnlyTheHashAndTagAccessTokenWithSession() {
+        // Arrange
+        when(refreshSessionRepository.save(any(RefreshSession.class))).thenAnswer(invocation -> {
+            RefreshSession saved = invocation.getArgument(0);
+            saved.setId(7L);
+            return saved;
+        });
+        when(jwtService.generateToken(eq(1L), eq("John Doe"), eq("john.doe@example.com"), eq(7L), any()))
+                .thenReturn("access");
+        when(jwtService.verify("access")).thenReturn(issued("jti-1", Instant.now().plusSeconds(900)));
+        when(jwtService.getExpirationSeconds()).thenReturn(900L);
+
+        // Act
+        AuthTokens tokens = refreshTokenService.startSession(user, "Firefox");
+
+        // Assert
+        assertEquals("access", tokens.getAccessToken());
+        assertEquals(900L, tokens.getExpiresIn());
+        verify(refreshSessionRepository).save(argThat(session ->
+                session.getTokenHash().equals(JwtService.hash(tokens.getRefreshToken()))
+                        && session.getDeviceName().equals("Firefox")
+                        && "jti-1".equals(session.getAccessTokenId())));
+    }
+
+    @Test
+    void refresh_ShouldRotateToken() {
+        // Arrange
+        String hash = JwtService.hash("refresh");
+        when(refreshSessionRepository.findByTokenHashWithUser(hash))
+                .thenReturn(Optional.of(session("refresh", Instant.now().plusSeconds(3600))));
+        when(refreshSessionRepository.rotate(eq(7L), eq(hash), anyString(), any(), any(), any(), any())).thenReturn(1);
+        when(jwtService.generateToken(eq(1L), any(), any(), eq(7L), any())).thenReturn("access");
+        when(jwtService.verify("access")).thenReturn(issued("jti-2", Instant.now().plusSeconds(900)));
+
+        // Act
+        Optional<AuthTokens> tokens = refreshTokenService.refresh("refresh");
+
+        // Assert
+        assertTrue(tokens.isPresent());
+        assertNotEquals("refresh", tokens.get().getRefreshToken());
+        verify(refreshSessionRepository).rotate(eq(7L), eq(hash),
+                eq(JwtService.hash(tokens.get().getRefreshToken())), any(), any(), eq("jti-2"), any());
+    }
+
+    @Test
+    void refresh_ShouldNotExtendSessionPastMaxAge() {
+        // Arrange: logged in 80 days ago; a 30-day slide would pass the 90-day cap.
+        String hash = JwtService.hash("refresh");
+        RefreshSession session = session("refresh", Instant.now().plusSeconds(3600));
+        session.setCreatedAt(Instant.now().minus(Duration.ofDays(80)));
+        when(refreshSessionRepository.findByTokenHashWithUser(hash)).thenReturn(Optional.of(session));
+        when(refreshSessionRepository.rotate(eq(7L), eq(hash), anyString(), any(), any(), any(), any())).thenReturn(1);
+        when(jwtService.generateToken(eq(1L), any(), any(), eq(7L), any())).thenReturn("access");
+        when(jwtService.verify("access")).thenReturn(issued("jti-2", Instant.now().plusSeconds(900)));
+
+        // Act
+        refreshTokenService.refresh("refresh");
+
+        // Assert
+        Instant cap = session.getCreatedAt().plus(Duration.ofDays(90));
+        verify(refreshSessionRepository).rotate(eq(7L), eq(hash), anyString(), any(), eq(cap), any(), any());
+    }
+
+    @Test
+    void revokeSession_ShouldRevokeTheSessionsAccessToken() {
+        RefreshSession session = session("refresh", Instant.now().plusSeconds(3600));
+        Instant accessExpiresAt = Instant.now().plusSeconds(600);
+        session.setAccessTokenId("jti-3");
+        session.setAccessTokenExpiresAt(accessExpiresAt);
+        when(refreshSessionRepository.findSessionOfUser(7L, 1L)).thenReturn(Optional.of(session));
+        when(refreshSessionRepository.deleteSessionOfUser(7L, 1L)).thenReturn(1);
+
+        assertTrue(refreshTokenService.revokeSession(1L, 7L));
+        verify(tokenManagementService).revoke("jti-3", accessExpiresAt);
+    }
+
+    @Test
+    void revokeSession_OfOtherUser_ShouldDoNothing() {
+        when(refreshSessionRepository.findSessionOfUser(7L, 2L)).thenReturn(Optional.empty());
+
+        assertFalse(refreshTokenService.revokeSession(2L, 7L));
+        verify(refreshSessionRepository, never()).deleteSessionOfUser(anyLong(), anyLong());
+        verifyNoInteractions(tokenManagementService);
+    }
+
+    @Test
+    void refresh_WithRotatedOutToken_ShouldEndSession() {
+        String hash = JwtService.hash("stolen");
+        when(refreshSessionRepository.findByTokenHashWithUser(hash)).thenReturn(Optional.empty());
+        when(refreshSessionRepository.findIdByPreviousTokenHash(hash)).thenReturn(Optional.of(7L));
+
+        assertTrue(refreshTokenService.refresh("stolen").isEmpty());
+        verify(refreshSessionRepository).deleteSession(7L);
+        verifyNoInteractions(jwtService);
+    }
+
+    @Test
+    void refresh_ForBannedUser_ShouldEndSession() {
+        user.setBanned(true);
+        when(refreshSessionRepository.findByTokenHashWithUser(JwtService.hash("refresh")))
+                .thenReturn(Optional.of(session("refresh", Instant.now().plusSeconds(3600))));
+
+        assertTrue(refreshTokenService.refresh("refresh").isEmpty());
+        verify(refreshSessionRepository).deleteSession(7L);
+        verify(refreshSessionRepository, never()).rotate(anyLong(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void refresh_LosingRotationRace_ShouldFail() {
+        String hash = JwtService.hash("refresh");
+        when(refreshSessionRepository.findByTokenHashWithUser(hash))
+                .thenReturn(Optional.of(session("refresh", Instant.now().plusSeconds(3600))));
+        when(refreshSessionRepository.rotate(eq(7L), eq(hash), anyString(), any(), any(), any(), any())).thenReturn(0);
+        when(jwtService.generateToken(eq(1L), any(), any(), eq(7L), any())).thenReturn("access");
+        when(jwtService.verify("access")).thenReturn(issued("jti-4", Instant.now().plusSeconds(900)));
+
+        assertTrue(refreshTokenService.refresh("refresh").isEmpty());
+        verify(jwtService, never()).getExpirationSeconds();
+    }
+}
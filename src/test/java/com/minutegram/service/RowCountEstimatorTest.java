@@ -0,0 +1,94 @@
+package com.minutegram.service;
+
+import com.minutegram.dto.CountMode;
+import com.minutegram.exception.InvalidInputException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RowCountEstimatorTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private RowCountEstimator estimator;
+
+    private final Pageable pageable = PageRequest.of(0, 2);
+    private final Page<String> exactPage = new PageImpl<>(List.of("a", "b"), PageRequest.of(0, 2), 7);
+    private final Slice<String> slice = new SliceImpl<>(List.of("a", "b"), PageRequest.of(0, 2), true);
+
+    @BeforeEach
+    void setUp() {
+        estimator = new RowCountEstimator(jdbcTemplate);
+    }
+
+    @Test
+    void page_Exact_ShouldCount() {
+        Page<String> result = estimator.page(CountMode.EXACT, pageable, "post", false, () -> exactPage, () -> fail("sliced"));
+
+        assertSame(exactPage, result);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void page_Approximate_ShouldUsePlannerEstimate() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq("post"))).thenReturn(List.of(1200L));
+
+        Page<String> result = estimator.page(CountMode.APPROXIMATE, pageable, "post", false, () -> fail("counted"), () -> slice);
+
+        assertEquals(1200L, result.getTotalElements());
+        assertEquals(600, result.getTotalPages());
+        assertEquals(List.of("a", "b"), result.getContent());
+    }
+
+    @Test
+    void page_ApproximateBelowSeenRows_ShouldReportSeenRows() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq("post"))).thenReturn(List.of(1L));
+
+        Page<String> result = estimator.page(CountMode.APPROXIMATE, pageable, "post", false, () -> fail("counted"), () -> slice);
+
+        assertEquals(3L, result.getTotalElements());
+        assertTrue(result.hasNext());
+    }
+
+    @Test
+    void page_ApproximateWithoutStatistics_ShouldFallBackToExact() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq("post"))).thenReturn(List.of(-1L));
+
+        Page<String> result = estimator.page(CountMode.APPROXIMATE, pageable, "post", false, () -> exactPage, () -> slice);
+
+        assertSame(exactPage, result);
+    }
+
+    @Test
+    void page_ApproximateWhileFiltered_ShouldFallBackToExact() {
+        Page<String> result = estimator.page(CountMode.APPROXIMATE, pageable, "post", true, () -> exactPage, () -> slice);
+
+        assertSame(exactPage, result);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void parse_ShouldRejectUnknownMode() {
+        assertEquals(CountMode.EXACT, CountMode.parse(null));
+        assertEquals(CountMode.APPROXIMATE, CountMode.parse("Approximate"));
+        assertThrows(InvalidInputException.class, () -> CountMode.parse("sometimes"));
+        assertThrows(InvalidInputException.class, () -> CountMode.parse("none"));
+    }
+}
@@ -0,0 +1,141 @@
+package com.minutegram.service;
+
+import com.minutegram.dto.PostSummaryDto;
+import com.minutegram.exception.TopicNotFoundException;
+import com.minutegram.repository.PostRepository;
+import com.minutegram.repository.TimelineEntryRepository;
+import com.minutegram.repository.TopicRepository;
+import com.minutegram.repository.TopicSubscriptionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TimelineServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Mock
+    private TopicSubscriptionRepository subscriptionRepository;
+
+    @Mock
+    private TimelineEntryRepository timelineEntryRepository;
+
+    @Mock
+    private TopicRepository topicRepository;
+
+    @Mock
+    private PostRepository postRepository;
+
+    private TimelineService timelineService;
+
+    @BeforeEach
+    void setUp() {
+        timelineService = new TimelineService(subscriptionRepository, timelineEntryRepository,
+                topicRepository, postRepository, 100, 50, 1000);
+    }
+
+    private PostSummaryDto post(long id, LocalDateTime createdAt) {
+        return new PostSummaryDto(id, "c", "t" + id, "John Doe", "Technology", null, null, createdAt, 0, 0);
+    }
+
+    @Test
+    void onPostCreated_ShouldLetFanOutStatementApplyThreshold() {
+        timelineService.onPostCreated(1L, 10L, NOW);
+
+        verify(timelineEntryRepository).fanOut(1L, 10L, NOW, 100);
+        verifyNoInteractions(topicRepository);
+    }
+
+    @Test
+    void onPostDeleted_ShouldRemoveItsEntries() {
+        timelineService.onPostDeleted(1L);
+
+        verify(timelineEntryRepository).deleteByPostId(1L);
+    }
+
+    @Test
+    void trim_ShouldDropOrphansAndCapEachTimeline() {
+        timelineService.trim();
+
+        verify(timelineEntryRepository).deleteOrphans();
+        verify(timelineEntryRepository).trimToNewest(1000);
+    }
+
+    @Test
+    void loadHome_ShouldMergeLargeTopicsAndDropDuplicates() {
+        PageRequest limit = PageRequest.of(0, 3);
+        when(timelineEntryRepository.findHomeFirstPage(1L, limit))
+                .thenReturn(List.of(post(5L, NOW.minusMinutes(1)), post(3L, NOW.minusMinutes(3))));
+        when(subscriptionRepository.findMergeOnReadTopicIds(1L, 100)).thenReturn(List.of(20L));
+        when(postRepository.findTopicsFeedFirstPage(List.of(20L), limit))
+                .thenReturn(List.of(post(6L, NOW), post(5L, NOW.minusMinutes(1)), post(4L, NOW.minusMinutes(2))));
+
+        List<PostSummaryDto> home = timelineService.loadHome(1L, null, 3);
+
+        assertEquals(List.of(6L, 5L, 4L), home.stream().map(PostSummaryDto::getId).toList());
+    }
+
+    @Test
+    void loadHome_WithoutLargeTopics_ShouldOnlyScanTimeline() {
+        PageRequest limit = PageRequest.of(0, 3);
+        when(timelineEntryRepository.findHomeFirstPage(1L, limit)).thenReturn(List.of(post(1L, NOW)));
+        when(subscriptionRepository.findMergeOnReadTopicIds(1L, 100)).thenReturn(List.of());
+
+        List<PostSummaryDto> home = timelineService.loadHome(1L, null, 3);
+
+        assertEquals(1, home.size());
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    void subscribe_ShouldBackfillTimelineEvenForLargeTopic() {
+        when(subscriptionRepository.insertSubscription(1L, 10L)).thenReturn(1);
+
+        timelineService.subscribe(1L, 10L);
+
+        verify(timelineEntryRepository).backfill(1L, 10L, 50);
+        verifyNoInteractions(topicRepository);
+    }
+
+    @Test
+    void unsubscribe_WhenTopicDropsToThreshold_ShouldBackfillAllSubscribers() {
+        when(subscriptionRepository.deleteSubscription(1L, 10L)).thenReturn(1);
+        when(topicRepository.findSubscriberCountById(10L)).thenReturn(100);
+
+        timelineService.unsubscribe(1L, 10L);
+
+        verify(timelineEntryRepository).deleteByUserIdAndTopicId(1L, 10L);
+        verify(timelineEntryRepository).backfillSubscribers(10L, 50);
+    }
+
+    @Test
+    void unsubscribe_BelowThreshold_ShouldNotBackfill() {
+        when(subscriptionRepository.deleteSubscription(1L, 10L)).thenReturn(1);
+        when(topicRepository.findSubscriberCountById(10L)).thenReturn(99);
+
+        timelineService.unsubscribe(1L, 10L);
+
+        verify(timelineEntryRepository, never()).backfillSubscribers(anyLong(), anyInt());
+    }
+
+    @Test
+    void subscribe_ToMissingTopic_ShouldThrowException() {
+        when(subscriptionRepository.insertSubscription(1L, 99L)).thenReturn(0);
+        when(topicRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(TopicNotFoundException.class, () -> timelineService.subscribe(1L, 99L));
+        verify(timelineEntryRepository, never()).backfill(anyLong(), anyLong(), anyInt());
+    }
+}
@@ -0,0 +1,93 @@
+package com.minutegram.service;
+
+import com.minutegram.dto.JwtService;
+import com.minutegram.dto.VerifiedToken;
+import com.minutegram.entity.RevokedToken;
+import com.minutegram.repository.RevokedTokenRepository;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenManagementServiceTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @InjectMocks
+    private TokenManagementService tokenManagementService;
+
+    private static VerifiedToken token(String id, Instant expiresAt) {
+        return new VerifiedToken(id, "john@example.com", 1L, "John Doe", 7L, List.of("ROLE_USER"), expiresAt);
+    }
+
+    @Test
+    void invalidateToken_ShouldRevokeByIdAndPersistExpiry() {
+        VerifiedToken verified = token("jti-1", Instant.now().plusSeconds(600));
+        when(jwtService.verify("jwt-token")).thenReturn(verified);
+
+        tokenManagementService.invalidateToken("jwt-token");
+
+        assertTrue(tokenManagementService.isRevoked(verified));
+        verify(revokedTokenRepository).save(argThat(revoked ->
+                revoked.getTokenId().equals("jti-1") && revoked.getExpiresAt().equals(verified.getExpiresAt())));
+    }
+
+    @Test
+    void invalidateToken_ThatNoLongerVerifies_ShouldStoreNothing() {
+        when(jwtService.verify("expired")).thenThrow(new JwtException("JWT expired"));
+
+        tokenManagementService.invalidateToken("expired");
+
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    @Test
+    void load_ShouldRestoreUnexpiredRevocations() {
+        when(revokedTokenRepository.findUnexpired(any()))
+                .thenReturn(List.of(new RevokedToken("jti-1", Instant.now().plusSeconds(600))));
+
+        tokenManagementService.load();
+
+        assertTrue(tokenManagementService.isRevoked(token("jti-1", Instant.now().plusSeconds(600))));
+    }
+
+    @Test
+    void purgeExpired_ShouldForgetRevocationsThatCanNoLongerValidate() {
+        RevokedToken live = new RevokedToken("live", Instant.now().plusSeconds(600));
+        when(revokedTokenRepository.findUnexpired(any()))
+                .thenReturn(List.of(new RevokedToken("old", Instant.now().minusSeconds(1)), live))
+                .thenReturn(List.of(live));
+        tokenManagementService.load();
+
+        tokenManagementService.purgeExpired();
+
+        assertFalse(tokenManagementService.isRevoked(token("old", Instant.now())));
+        assertTrue(tokenManagementService.isRevoked(token("live", Instant.now().plusSeconds(600))));
+        verify(revokedTokenRepository).deleteExpired(any());
+    }
+
+    @Test
+    void onRemoteRevocation_ShouldApplyWithoutStoringAgain() {
+        tokenManagementService.onRemoteRevocation("jti-9", Instant.now().plusSeconds(600));
+        tokenManagementService.onRemoteRevocation("expired", Instant.now().minusSeconds(1));
+
+        assertTrue(tokenManagementService.isRevoked(token("jti-9", Instant.now().plusSeconds(600))));
+        assertFalse(tokenManagementService.isRevoked(token("expired", Instant.now())));
+        verifyNoInteractions(revokedTokenRepository);
+    }
+}
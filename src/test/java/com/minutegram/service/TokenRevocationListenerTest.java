@@ -0,0 +1,46 @@
+package com.minutegram.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationListenerTest {
+
+    private TokenManagementService tokenManagementService;
+    private TokenRevocationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        tokenManagementService = mock(TokenManagementService.class);
+        listener = new TokenRevocationListener(tokenManagementService, false, "jdbc:postgresql://localhost/test", "", "");
+    }
+
+    @Test
+    void apply_ShouldForwardTokenIdAndExpiry() {
+        listener.apply("3f1c9a7e-0000-4000-8000-000000000001:1700000000");
+
+        verify(tokenManagementService).onRemoteRevocation(
+                "3f1c9a7e-0000-4000-8000-000000000001", Instant.ofEpochSecond(1700000000));
+    }
+
+    @Test
+    void apply_MalformedPayload_ShouldBeIgnored() {
+        listener.apply("no-expiry");
+        listener.apply("jti:soon");
+
+        verify(tokenManagementService, never()).onRemoteRevocation(anyString(), any());
+    }
+
+    @Test
+    void start_WhenDisabled_ShouldNotConnect() {
+        listener.start();
+        listener.stop();
+
+        verifyNoInteractions(tokenManagementService);
+    }
+}
@@ -0,0 +1,119 @@
+package com.minutegram.service;
+
+import com.minutegram.dto.TopicNameDto;
+import com.minutegram.dto.TopicSuggestionDto;
+import com.minutegram.repository.TopicRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TopicDirectoryTest {
+
+    private TopicRepository topicRepository;
+    private TopicDirectory directory;
+
+    @BeforeEach
+    void setUp() {
+        topicRepository = mock(TopicRepository.class);
+        when(topicRepository.findAllIdsNamesAndPostCounts()).thenReturn(List.of(
+                new Object[]{1L, "Technology", 5},
+                new Object[]{2L, "art", 2},
+                new Object[]{3L, "Tech Jobs", 9},
+                new Object[]{4L, "Café Culture", 0}));
+        directory = new TopicDirectory(topicRepository);
+        directory.load();
+    }
+
+    @Test
+    void resolve_ShouldAnswerLoadedNamesWithoutQuery() {
+        assertEquals(Optional.of(1L), directory.resolve("Technology"));
+        verify(topicRepository, never()).findIdByName(any());
+    }
+
+    @Test
+    void resolve_UnknownName_ShouldFallBackToDatabaseOnce() {
+        when(topicRepository.findIdByName("Music")).thenReturn(Optional.of(5L));
+
+        assertEquals(Optional.of(5L), directory.resolve("Music"));
+        assertEquals(Optional.of(5L), directory.resolve("Music"));
+        verify(topicRepository, times(1)).findIdByName("Music");
+    }
+
+    @Test
+    void onTopicDeleted_ShouldRemoveName() {
+        directory.onTopicDeleted(1L);
+
+        assertTrue(directory.resolve("Technology").isEmpty());
+        assertEquals(List.of("art", "Café Culture", "Tech Jobs"),
+                directory.list().stream().map(TopicNameDto::getName).toList());
+        assertTrue(directory.suggest("techn", 10).isEmpty());
+    }
+
+    @Test
+    void refresh_ShouldDropTopicsDeletedElsewhere() {
+        when(topicRepository.findAllIdsNamesAndPostCounts()).thenReturn(List.of(
+                new Object[]{2L, "art", 2},
+                new Object[]{3L, "Tech Jobs", 9}));
+
+        directory.refresh();
+
+        assertEquals(List.of("art", "Tech Jobs"), directory.list().stream().map(TopicNameDto::getName).toList());
+        assertEquals(List.of("Tech Jobs"), names(directory.suggest("tech", 10)));
+    }
+
+    @Test
+    void onTopicMissing_ShouldEvictStaleEntry() {
+        directory.onTopicMissing(1L);
+
+        when(topicRepository.findIdByName("Technology")).thenReturn(Optional.empty());
+        assertTrue(directory.resolve("Technology").isEmpty());
+    }
+
+    @Test
+    void list_ShouldSortByNameIgnoringCase() {
+        directory.onTopicCreated(5L, "Music");
+
+        assertEquals(List.of("art", "Café Culture", "Music", "Tech Jobs", "Technology"),
+                directory.list().stream().map(TopicNameDto::getName).toList());
+    }
+
+    @Test
+    void suggest_ShouldMatchWordPrefixesAndRankByPostCount() {
+        assertEquals(List.of("Tech Jobs", "Technology"), names(directory.suggest("TECH", 10)));
+        assertEquals(List.of("Tech Jobs"), names(directory.suggest("jo", 10)));
+        assertEquals(List.of("Café Culture"), names(directory.suggest("cafe", 10)));
+        assertEquals(List.of("Tech Jobs", "Technology"), names(directory.suggest("", 2)));
+        verify(topicRepository, never()).findIdByName(any());
+    }
+
+    @Test
+    void suggest_ShouldFollowNewTopicsAndPosts() {
+        directory.onTopicCreated(5L, "Techno Music");
+        for (int i = 0; i < 10; i++) {
+            directory.onPostCreated(5L);
+        }
+
+        assertEquals(List.of("Techno Music", "Tech Jobs", "Technology"), names(directory.suggest("tech", 10)));
+    }
+
+    @Test
+    void refresh_ShouldRebuildTypeaheadFromDatabase() {
+        when(topicRepository.findAllIdsNamesAndPostCounts()).thenReturn(List.of(
+                new Object[]{1L, "Technology", 20},
+                new Object[]{3L, "Tech Jobs", 9},
+                new Object[]{6L, "Techno", 30}));
+
+        directory.refresh();
+
+        assertEquals(List.of("Techno", "Technology", "Tech Jobs"), names(directory.suggest("tech", 10)));
+    }
+
+    private static List<String> names(List<TopicSuggestionDto> suggestions) {
+        return suggestions.stream().map(TopicSuggestionDto::getName).toList();
+    }
+}
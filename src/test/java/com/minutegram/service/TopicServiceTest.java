@@ -0,0 +1,109 @@
+package com.minutegram.service;
+
+import com.minutegram.cache.CacheRegistry;
+import com.minutegram.dto.PostSummaryDto;
+import com.minutegram.dto.TopicCreateDto;
+import com.minutegram.dto.TopicDto;
+import com.minutegram.dto.TopicWithPostsDto;
+import com.minutegram.entity.Topic;
+import com.minutegram.exception.InvalidInputException;
+import com.minutegram.exception.TopicAlreadyExistsException;
+import com.minutegram.exception.TopicNotFoundException;
+import com.minutegram.repository.PostRepository;
+import com.minutegram.repository.TopicRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TopicServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Mock
+    private TopicRepository topicRepository;
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private TopicDirectory topicDirectory;
+
+    @Spy
+    private CacheRegistry cacheRegistry = new CacheRegistry();
+
+    @InjectMocks
+    private TopicService topicService;
+
+    @BeforeEach
+    void setUp() {
+        topicService.registerSingleFlight();
+    }
+
+    @Test
+    void createTopic_WhenNameTakenConcurrently_ShouldThrowTopicAlreadyExists() {
+        // Arrange: the directory has not seen the other create yet, the unique constraint has.
+        TopicCreateDto dto = new TopicCreateDto();
+        dto.setName("Technology");
+        when(topicDirectory.resolve("Technology")).thenReturn(Optional.empty());
+        when(topicRepository.saveAndFlush(any(Topic.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_topic_name"));
+
+        // Act & Assert
+        assertThrows(TopicAlreadyExistsException.class, () -> topicService.createTopic(dto));
+        verify(topicDirectory, never()).onTopicCreated(any(), any());
+    }
+
+    @Test
+    void getTopicWithPosts_ShouldTakeTotalFromTopicPostCount() {
+        // Arrange
+        TopicDto topic = new TopicDto(10L, "Technology", "desc", NOW, 1L, "John Doe", 42, NOW);
+        Pageable pageable = PageRequest.of(0, 1, TopicService.postSort("popular"));
+        when(topicRepository.findProjectedById(10L)).thenReturn(Optional.of(topic));
+        when(postRepository.findProjectedByTopicId(10L, pageable)).thenReturn(List.of(
+                new PostSummaryDto(1L, "content", "title", "John Doe", "Technology", null, null, NOW, 5, 0)));
+
+        // Act
+        TopicWithPostsDto page = topicService.getTopicWithPosts(10L, pageable);
+
+        // Assert
+        assertEquals(42, page.getPosts().getTotalElements());
+        assertEquals(1, page.getPosts().getContent().size());
+        verify(postRepository, never()).findAllProjectedByTopicId(any(), any());
+    }
+
+    @Test
+    void getTopicWithPosts_WithMissingTopic_ShouldNotQueryPosts() {
+        when(topicRepository.findProjectedById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(TopicNotFoundException.class,
+                () -> topicService.getTopicWithPosts(99L, PageRequest.of(0, 10, TopicService.postSort("newest"))));
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    void postSort_ShouldAcceptLegacyKeysAndRejectOthers() {
+        assertEquals(TopicService.postSort("newest"), TopicService.postSort("createdAt,desc"));
+        assertEquals(Sort.by(Sort.Order.desc("likeCount"), Sort.Order.desc("id")), TopicService.postSort("likesCount,desc"));
+        assertThrows(InvalidInputException.class, () -> TopicService.postSort("title,asc"));
+    }
+}
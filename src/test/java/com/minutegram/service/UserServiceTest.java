@@ -1,5 +1,6 @@
 package com.minutegram.service;
 
+import com.minutegram.dto.AuthenticatedUser;
 import com.minutegram.entity.User;
 import com.minutegram.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,6 +16,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -94,4 +96,33 @@ class UserServiceTest {
             userService.getCurrentUser();
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void getCurrentUserReference_WithClaimsPrincipal_ShouldNotQueryUser() {
+        // Arrange
+        User reference = new User();
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getPrincipal()).thenReturn(new AuthenticatedUser(1L, "john.doe@example.com", "John Doe"));
+        when(userRepository.getReferenceById(1L)).thenReturn(reference);
+
+        // Act & Assert
+        assertSame(reference, userService.getCurrentUserReference());
+        assertEquals("John Doe", userService.getCurrentUserName());
+        verify(userRepository, never()).findByEmail(any());
+        verify(userRepository, never()).findIdByEmail(any());
+    }
+
+    @Test
+    void getCurrentUserId_WithTokenWithoutUidClaim_ShouldQueryIdOnly() {
+        // Arrange
+        String email = "john.doe@example.com";
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getPrincipal()).thenReturn(new AuthenticatedUser(null, email, null));
+        when(authentication.getName()).thenReturn(email);
+        when(userRepository.findIdByEmail(email)).thenReturn(Optional.of(1L));
+
+        // Act & Assert
+        assertEquals(1L, userService.getCurrentUserId());
+        verify(userRepository, never()).findByEmail(any());
+    }
+}